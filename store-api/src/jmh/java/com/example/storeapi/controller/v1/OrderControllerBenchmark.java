@@ -0,0 +1,34 @@
+package com.example.storeapi.controller.v1;
+
+import com.example.storeapi.domain.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Parsing de status (aliases em português, espaços e caixa) usado em PATCH /status e no export,
+// e consulta à tabela de transições; ambos devem ficar em 0 B/op no -prof gc
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class OrderControllerBenchmark {
+
+    @Param({"PAID", "delivered", " Entregue ", "CANCELADO"})
+    String raw;
+
+    private OrderController controller;
+
+    @Setup
+    public void setup() {
+        controller = new OrderController(null, null, null);
+    }
+
+    @Benchmark
+    public OrderStatus parseStatus() {
+        return controller.parseStatus(raw);
+    }
+
+    @Benchmark
+    public boolean parseAndCheckTransition() {
+        return OrderStatus.DELIVERED.canTransitionTo(controller.parseStatus(raw));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.storeapi.controller.v1;
+
+import com.example.storeapi.StoreApiApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Teste de carga do modo de threads: 1000 clientes simultâneos (threads do JMH, cada uma com uma requisição HTTP
+// bloqueante por vez) contra GET /api/v1/products/{id} e POST /api/v1/orders, com a aplicação em threads de
+// plataforma (pool de 200 do Tomcat) e em virtual threads (com o bulkhead de store.virtual-threads).
+// Cada modo sobe a aplicação inteira num fork próprio, em porta aleatória, no banco BENCH_DB_URL (padrão
+// storedb_bench, que precisa existir), e cria sua categoria, produto e cliente pela API. Cliente e servidor dividem
+// a mesma máquina: compare os modos entre si, na mesma máquina, e não com números de produção.
+// Requer Java 21+ em runtime (o modo virtual falha no setup em versões anteriores). Além de ops/s e dos percentis
+// de latência, reporta as respostas ok, as recusadas pelo bulkhead (503) e os demais erros.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1000)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 15)
+public class ThreadingModeLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    String mode;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private long productId;
+    private String orderBody;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Responses {
+        public long ok;
+        public long shed;
+        public long errors;
+
+        void record(int status) {
+            if (status == 503) {
+                shed++;
+            } else if (status >= 200 && status < 300) {
+                ok++;
+            } else {
+                errors++;
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        boolean virtual = mode.equals("virtual");
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads require Java 21+; running on " + Runtime.version());
+        }
+        context = new SpringApplicationBuilder(StoreApiApplication.class)
+                // argumentos de linha de comando: prevalecem sobre o application.yml
+                .run("--server.port=0",
+                        "--management.server.port=0",
+                        "--spring.datasource.url=" + env("BENCH_DB_URL", "jdbc:postgresql://localhost:5432/storedb_bench"),
+                        "--spring.jpa.show-sql=false",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        // sob sobrecarga cada conexão não obtida do pool seria logada; os erros já entram na contagem
+                        "--logging.level.root=warn",
+                        "--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=off");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/v1";
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        long categoryId = create("/categories", "{\"name\":\"Load " + suffix + "\"}");
+        productId = create("/products", "{\"name\":\"Load product\",\"price\":\"19.90\",\"categoryId\":" + categoryId + "}");
+        long customerId = create("/customers", "{\"name\":\"Load\",\"email\":\"load-" + suffix + "@example.com\"}");
+        orderBody = "{\"customerId\":" + customerId + ",\"items\":[{\"productId\":" + productId + ",\"quantity\":1}]}";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getProduct(Responses responses) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + productId)).GET(), responses);
+    }
+
+    @Benchmark
+    public int createOrder(Responses responses) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(orderBody)), responses);
+    }
+
+    private int send(HttpRequest.Builder request, Responses responses) throws InterruptedException {
+        int status;
+        try {
+            status = client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
+        } catch (IOException ex) {
+            status = 0;
+        }
+        responses.record(status);
+        return status;
+    }
+
+    private long create(String path, String json) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("POST " + path + " answered " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode body = new ObjectMapper().readTree(response.body());
+        return body.get("id").asLong();
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.storeapi.dto;
+
+import com.example.storeapi.dto.common.Fields;
+import com.example.storeapi.dto.order.OrderItemResponseDTO;
+import com.example.storeapi.dto.order.OrderResponseDTO;
+import com.example.storeapi.dto.product.ProductResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialização Jackson das respostas mais comuns (páginas de pedidos e produtos, produto) em JSON e CBOR.
+// O tamanho de cada payload é impresso no setup de cada fork.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    int pageSize;
+
+    @Param({"5"})
+    int itemsPerOrder;
+
+    @Param({"json", "cbor"})
+    String format;
+
+    private ObjectMapper objectMapper;
+    private Page<OrderResponseDTO> orders;
+    private Page<ProductResponseDTO> products;
+    private ProductResponseDTO product;
+
+    @Setup
+    public void setup() {
+        // Mesma configuração base do ObjectMapper do Spring Boot (JavaTimeModule, datas em ISO-8601, filtro de ?fields=);
+        // em CBOR muda só o formato, como no conversor de WebConfig
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .filters(Fields.serializeAll());
+        if (format.equals("cbor")) {
+            builder.factory(new CBORFactory());
+        }
+        objectMapper = builder.build();
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<OrderResponseDTO> content = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            List<OrderItemResponseDTO> items = new ArrayList<>();
+            BigDecimal total = BigDecimal.ZERO;
+            for (long p = 1; p <= itemsPerOrder; p++) {
+                BigDecimal price = BigDecimal.valueOf(1999 + p * 37, 2);
+                BigDecimal subtotal = price.multiply(BigDecimal.valueOf(2));
+                items.add(new OrderItemResponseDTO(p, "Produto " + p, 2, price, subtotal));
+                total = total.add(subtotal);
+            }
+            content.add(new OrderResponseDTO(id, id % 50, "Cliente " + (id % 50), total, "PAID", now, items.size(), items));
+        }
+        orders = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+        List<ProductResponseDTO> productContent = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            productContent.add(new ProductResponseDTO(id, "Produto " + id, "Descrição do produto " + id,
+                    BigDecimal.valueOf(9990 + id * 113, 2), "ACTIVE", id % 10, "Categoria " + (id % 10), now));
+        }
+        products = new PageImpl<>(productContent, PageRequest.of(0, pageSize), 10_000);
+        product = productContent.get(0);
+
+        try {
+            System.out.printf("%n%s payload (pageSize=%d): orderPage=%d bytes, productPage=%d bytes, product=%d bytes%n",
+                    format, pageSize, orderPage().length, productPage().length, product().length);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Benchmark
+    public byte[] orderPage() throws Exception {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] productPage() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] product() throws Exception {
+        return objectMapper.writeValueAsBytes(product);
+    }
+}
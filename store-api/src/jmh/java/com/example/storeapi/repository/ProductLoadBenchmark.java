@@ -0,0 +1,107 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.StoreApiApplication;
+import com.example.storeapi.domain.Product;
+import com.example.storeapi.service.CachedProduct;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Leitura dos produtos de um pedido de 1, 10 e 100 linhas pelo ProductRepository de verdade (Spring Data + Hibernate
+// + PostgreSQL), sem o ProductCache: um findById por linha (como o create fazia antes) contra o único
+// findWithCategoryByIdIn de OrderService.loadProducts. Cada invocação é uma transação, então o contexto de
+// persistência começa vazio. Sobe o contexto Spring sem web no banco BENCH_DB_URL (padrão storedb_bench, que
+// precisa existir; o Flyway aplica as migrações) e semeia 100 produtos numa categoria própria na primeira execução.
+// Com o banco em localhost a diferença é quase só o custo de cada statement; com rede entre a aplicação e o banco,
+// cada linha a mais no findById soma um round trip.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductLoadBenchmark {
+
+    private static final String CATEGORY = "Bench order lines";
+    private static final int PRODUCTS = 100;
+
+    @Param({"1", "10", "100"})
+    int lines;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository repository;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(StoreApiApplication.class)
+                .web(WebApplicationType.NONE)
+                // argumentos de linha de comando: prevalecem sobre o application.yml
+                .run("--spring.datasource.url=" + env("BENCH_DB_URL", "jdbc:postgresql://localhost:5432/storedb_bench"),
+                        "--spring.jpa.show-sql=false",
+                        "--store.cache.products.enabled=false",
+                        "--store.outbox.dispatcher.enabled=false");
+        repository = context.getBean(ProductRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        ids = seed(context.getBean(JdbcTemplate.class)).subList(0, lines);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Antes: uma query por linha
+    @Benchmark
+    public BigDecimal findByIdPerLine() {
+        return transactionTemplate.execute(status -> {
+            BigDecimal total = BigDecimal.ZERO;
+            for (Long id : ids) {
+                Product p = repository.findById(id).orElseThrow();
+                total = total.add(p.getPrice());
+            }
+            return total;
+        });
+    }
+
+    // Agora: uma query com a categoria junto, qualquer que seja o número de linhas
+    @Benchmark
+    public BigDecimal findWithCategoryByIdIn() {
+        return transactionTemplate.execute(status -> {
+            BigDecimal total = BigDecimal.ZERO;
+            for (Product p : repository.findWithCategoryByIdIn(ids)) {
+                total = total.add(CachedProduct.of(p).getPrice());
+            }
+            return total;
+        });
+    }
+
+    private static List<Long> seed(JdbcTemplate jdbc) {
+        jdbc.update("insert into categories (name) values (?) on conflict (name) do nothing", CATEGORY);
+        Long categoryId = jdbc.queryForObject("select id from categories where name = ?", Long.class, CATEGORY);
+        Integer existing = jdbc.queryForObject("select count(*) from products where category_id = ?", Integer.class, categoryId);
+        if (existing == null || existing < PRODUCTS) {
+            jdbc.update("insert into products (name, price, category_id) " +
+                    "select 'Order line ' || g, 10 + g, ? from generate_series(?, ?) g",
+                    categoryId, existing == null ? 1 : existing + 1, PRODUCTS);
+        }
+        return new ArrayList<>(jdbc.queryForList("select id from products where category_id = ? order by id limit ?",
+                Long.class, categoryId, PRODUCTS));
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
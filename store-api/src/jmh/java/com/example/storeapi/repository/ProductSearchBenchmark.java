@@ -0,0 +1,186 @@
+package com.example.storeapi.repository;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Único benchmark com banco: roda o SQL de ProductSearchRepositoryImpl num catálogo de 1M produtos.
+// Usa um banco próprio (BENCH_DB_URL, padrão storedb_bench, que precisa existir): aplica as migrações do Flyway
+// e semeia os produtos na primeira execução (alguns minutos). Nomes combinam 20 substantivos x 10 adjetivos x
+// 20 marcas, então um termo sozinho casa com ~50k produtos e termos combinados com poucos milhares.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int CATEGORIES = 50;
+    private static final int LIMIT = 20;
+
+    private static final Pattern NAMED_PARAM = Pattern.compile(":(\\w+)");
+
+    // termo comum, termos combinados, erros de digitação (caem nos trigramas) e sem resultado
+    @Param({"mochila", "mochila azul acme", "cadiera", "notebok gamer", "xyzzy"})
+    String q;
+
+    private Connection connection;
+    private PreparedStatement firstPage;
+    private PreparedStatement fuzzyFirstPage;
+    private PreparedStatement byCategory;
+    private PreparedStatement fuzzyByCategory;
+    private PreparedStatement nextPage;
+    private float afterScore;
+    private long afterId;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        String url = env("BENCH_DB_URL", "jdbc:postgresql://localhost:5432/storedb_bench");
+        String user = env("DB_USERNAME", "postgres");
+        String password = env("DB_PASSWORD", "root");
+        Flyway.configure().dataSource(url, user, password).load().migrate();
+        connection = DriverManager.getConnection(url, user, password);
+        seed();
+        try (Statement st = connection.createStatement()) {
+            st.execute("set pg_trgm.word_similarity_threshold = " + ProductSearchRepositoryImpl.DEFAULT_FUZZY_THRESHOLD);
+        }
+
+        ProductSearchRepository.Mode text = ProductSearchRepository.Mode.TEXT;
+        ProductSearchRepository.Mode fuzzy = ProductSearchRepository.Mode.FUZZY;
+        long category = categoryId("Bench 7");
+        int words = ProductSearchRepositoryImpl.fuzzyWords(q).size();
+        firstPage = prepare(ProductSearchRepositoryImpl.searchSql(text, 0, false, false, true), q, null, null, null);
+        fuzzyFirstPage = prepare(ProductSearchRepositoryImpl.searchSql(fuzzy, words, false, false, true), q, null, null, null);
+        byCategory = prepare(ProductSearchRepositoryImpl.searchSql(text, 0, true, false, true), q, category, null, null);
+        fuzzyByCategory = prepare(ProductSearchRepositoryImpl.searchSql(fuzzy, words, true, false, true), q, category, null, null);
+        // cursor do fim da primeira página (no modo que a respondeu), para medir a página seguinte
+        ProductSearchRepository.Mode mode = count(firstPage) > 0 ? text : fuzzy;
+        try (ResultSet rs = (mode == text ? firstPage : fuzzyFirstPage).executeQuery()) {
+            while (rs.next()) {
+                afterScore = rs.getFloat("score");
+                afterId = rs.getLong("id");
+            }
+        }
+        nextPage = prepare(ProductSearchRepositoryImpl.searchSql(mode, words, false, true, true), q, null, afterScore, afterId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    // Como ProductService.search: full-text e, sem nenhum resultado, trigramas
+    @Benchmark
+    public int firstPage() throws SQLException {
+        int rows = count(firstPage);
+        return rows > 0 ? rows : count(fuzzyFirstPage);
+    }
+
+    @Benchmark
+    public int firstPageInCategory() throws SQLException {
+        int rows = count(byCategory);
+        return rows > 0 ? rows : count(fuzzyByCategory);
+    }
+
+    @Benchmark
+    public int secondPage() throws SQLException {
+        return count(nextPage);
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // Troca os parâmetros nomeados do SQL nativo por '?' do JDBC, na ordem em que aparecem
+    private PreparedStatement prepare(String sql, String query, Long categoryId, Float score, Long id) throws SQLException {
+        List<String> words = ProductSearchRepositoryImpl.fuzzyWords(query);
+        List<String> names = new ArrayList<>();
+        Matcher m = NAMED_PARAM.matcher(sql);
+        while (m.find()) {
+            names.add(m.group(1));
+        }
+        PreparedStatement statement = connection.prepareStatement(m.replaceAll("?"));
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (name.matches("w\\d+")) {
+                statement.setString(i + 1, words.get(Integer.parseInt(name.substring(1))));
+                continue;
+            }
+            switch (name) {
+                case "q" -> statement.setString(i + 1, query);
+                case "categoryId" -> statement.setLong(i + 1, categoryId);
+                case "afterScore" -> statement.setFloat(i + 1, score);
+                case "afterId" -> statement.setLong(i + 1, id);
+                case "limit" -> statement.setInt(i + 1, LIMIT + 1);
+                default -> throw new IllegalStateException("Unknown parameter " + name);
+            }
+        }
+        return statement;
+    }
+
+    private void seed() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            try (ResultSet rs = st.executeQuery("select count(*) from products")) {
+                rs.next();
+                if (rs.getLong(1) >= PRODUCTS) {
+                    return;
+                }
+            }
+            st.execute("insert into categories (name) select 'Bench ' || g from generate_series(1, " + CATEGORIES + ") g " +
+                    "on conflict (name) do nothing");
+            st.execute("select setseed(0.42)");
+            st.execute("insert into products (name, description, price, category_id) " +
+                    "select n || ' ' || a || ' ' || b || ' ' || (g % 1000), " +
+                    "'Produto ' || n || ' da linha ' || b || ', acabamento ' || a2, " +
+                    "round(cast(5 + random() * 2000 as numeric), 2), " +
+                    "c.id " +
+                    "from (select g, " +
+                    "(array['notebook','cadeira','mesa','livro','camiseta','tênis','fone','monitor','teclado','mouse'," +
+                    "'panela','garrafa','mochila','relógio','câmera','celular','caneca','luminária','ventilador','travesseiro'])" +
+                    "[1 + cast(floor(random() * 20) as int)] as n, " +
+                    "(array['preto','branco','azul','gamer','ergonômico','sem fio','portátil','infantil','premium','compacto'])" +
+                    "[1 + cast(floor(random() * 10) as int)] as a, " +
+                    "(array['preto','branco','azul','fosco','brilhante'])[1 + cast(floor(random() * 5) as int)] as a2, " +
+                    "(array['Acme','Orion','Vega','Atlas','Nimbus','Zenit','Aurora','Delta','Kappa','Lumen'," +
+                    "'Nova','Polar','Quasar','Rubi','Sigma','Titan','Umbra','Vortex','Yara','Zeta'])" +
+                    "[1 + cast(floor(random() * 20) as int)] as b " +
+                    "from generate_series((select count(*) from products) + 1, " + PRODUCTS + ") g) x " +
+                    "join categories c on c.name = 'Bench ' || (1 + x.g % " + CATEGORIES + ")");
+            st.execute("analyze products");
+        }
+    }
+
+    private long categoryId(String name) throws SQLException {
+        try (PreparedStatement st = connection.prepareStatement("select id from categories where name = ?")) {
+            st.setString(1, name);
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
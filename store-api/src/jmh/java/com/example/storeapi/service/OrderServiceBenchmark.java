@@ -0,0 +1,147 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.domain.Category;
+import com.example.storeapi.domain.Customer;
+import com.example.storeapi.domain.Order;
+import com.example.storeapi.domain.OrderItem;
+import com.example.storeapi.domain.Product;
+import com.example.storeapi.domain.ProductStatus;
+import com.example.storeapi.dto.order.OrderItemCreateDTO;
+import com.example.storeapi.dto.order.OrderResponseDTO;
+import com.example.storeapi.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Caminhos quentes do OrderService sem banco: mapeamento para DTO e, por número de linhas do pedido, cada etapa do
+// create (mergeLines, loadProducts com e sem cache, subtotais/total)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class OrderServiceBenchmark {
+
+    @Param({"1", "10", "100"})
+    int items;
+
+    private OrderService service;
+    private Order order;
+    private List<OrderItemCreateDTO> lines;
+    private Map<Long, CachedProduct> products;
+    private Map<Long, Integer> quantities;
+    private List<Product> rows;
+    private OrderService cached;
+    private OrderService uncached;
+
+    @Setup
+    public void setup() {
+        // Só getReferenceById (addItems) e findWithCategoryByIdIn (misses do loadProducts) são usados; qualquer outro
+        // acesso ao repositório é erro no benchmark
+        ProductRepository productRepository = (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getReferenceById" -> product((Long) args[0]);
+                    case "findWithCategoryByIdIn" -> rows;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "ProductRepositoryStub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        service = new OrderService(null, null, productRepository, null, null, null, null, null);
+        ProductCache productCache = new ProductCache(null, null, true, 10_000, Duration.ofMinutes(10), Duration.ofDays(1));
+        cached = new OrderService(null, null, productRepository, productCache, null, null, null, null);
+        uncached = new OrderService(null, null, productRepository,
+                new ProductCache(null, null, false, 10_000, Duration.ofMinutes(10), Duration.ofDays(1)),
+                null, null, null, null);
+
+        Customer customer = new Customer();
+        customer.setId(1L);
+        customer.setName("Cliente Benchmark");
+
+        order = new Order();
+        order.setId(1L);
+        order.setCustomer(customer);
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Categoria");
+
+        lines = new ArrayList<>();
+        products = new HashMap<>();
+        rows = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (long id = 1; id <= items; id++) {
+            BigDecimal price = BigDecimal.valueOf(1999 + id * 37, 2);
+            int quantity = (int) (id % 5) + 1;
+
+            OrderItemCreateDTO line = new OrderItemCreateDTO();
+            line.setProductId(id);
+            line.setQuantity(quantity);
+            lines.add(line);
+            products.put(id, new CachedProduct(id, "Produto " + id, null, price, ProductStatus.ACTIVE,
+                    1L, "Categoria", OffsetDateTime.now(), 0L, 0L));
+            productCache.put(products.get(id));
+
+            Product row = product(id);
+            row.setPrice(price);
+            row.setCategory(category);
+            rows.add(row);
+
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product(id));
+            item.setQuantity(quantity);
+            item.setUnitPrice(price);
+            item.setSubtotal(price.multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP));
+            order.getItems().add(item);
+            total = total.add(item.getSubtotal());
+        }
+        order.setTotal(total);
+        quantities = service.mergeLines(lines);
+    }
+
+    private static Product product(Long id) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("Produto " + id);
+        return p;
+    }
+
+    @Benchmark
+    public OrderResponseDTO toResponse() {
+        return service.toResponse(order);
+    }
+
+    @Benchmark
+    public Map<Long, Integer> mergeLines() {
+        return service.mergeLines(lines);
+    }
+
+    // Todos os produtos no ProductCache (caso comum)
+    @Benchmark
+    public Map<Long, CachedProduct> loadProductsCached() {
+        return cached.loadProducts(quantities.keySet());
+    }
+
+    // Cache desligado: todos vão para a (única) consulta ao repositório, aqui sem banco (o custo da consulta, contra um
+    // findById por linha, está no ProductLoadBenchmark)
+    @Benchmark
+    public Map<Long, CachedProduct> loadProductsUncached() {
+        return uncached.loadProducts(quantities.keySet());
+    }
+
+    // Mesma sequência do create: soma linhas repetidas, monta os itens e calcula subtotais e total
+    @Benchmark
+    public BigDecimal createTotals() {
+        Order target = new Order();
+        return service.addItems(target, service.mergeLines(lines), products);
+    }
+}
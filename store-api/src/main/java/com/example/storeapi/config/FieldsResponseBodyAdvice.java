@@ -0,0 +1,31 @@
+package com.example.storeapi.config;
+
+import com.example.storeapi.dto.common.Fields;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+// Corta a resposta (JSON ou CBOR) de um GET com ?fields= aos campos pedidos. Só os DTOs com @JsonFilter(Fields.FILTER_ID)
+// são afetados; o nome dos campos já foi validado pelo controller (Fields.parse), que também evita carregá-los.
+@RestControllerAdvice
+public class FieldsResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (request.getMethod() != HttpMethod.GET || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(Fields.PARAM);
+        if (fields != null && !fields.isBlank()) {
+            bodyContainer.setFilters(Fields.filterFor(fields));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.storeapi.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Máximo de statements SQL que o endpoint pode executar na thread da requisição (ver StatementCounter).
+// O valor não depende do tamanho da página/pedido: uma relação lazy percorrida por linha (N+1) estoura o limite.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
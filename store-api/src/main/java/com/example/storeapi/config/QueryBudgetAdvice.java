@@ -0,0 +1,41 @@
+package com.example.storeapi.config;
+
+import com.example.storeapi.exception.QueryBudgetExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Modo estrito: falha a requisição (500) antes de escrever o corpo quando o endpoint excede seu @QueryBudget.
+// Endpoints sem corpo (DELETE 204) só são verificados no StatementMetricsInterceptor (log + métrica).
+@RestControllerAdvice
+public class QueryBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    private final boolean strict;
+
+    public QueryBudgetAdvice(@Value("${store.query-budget.strict:false}") boolean strict) {
+        this.strict = strict;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return strict && returnType.hasMethodAnnotation(QueryBudget.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryBudget budget = returnType.getMethodAnnotation(QueryBudget.class);
+        int executed = StatementCounter.current();
+        if (budget != null && executed > budget.value()) {
+            throw new QueryBudgetExceededException("Query budget exceeded for " + request.getMethod() + " "
+                    + request.getURI().getPath() + ": " + executed + " statements (budget " + budget.value() + ")");
+        }
+        return body;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.storeapi.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+// Transações @Transactional(readOnly = true) vão para a réplica, exceto quando ela está indisponível/atrasada
+// ou quando o cliente escreveu há pouco (ReadYourWritesFilter). Deve ficar atrás de um
+// LazyConnectionDataSourceProxy: a conexão só é pedida depois que o flag readOnly da transação foi definido.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaHealth replicaHealth;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaHealth replicaHealth) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaHealth = replicaHealth;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replicaRead = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && replicaHealth.isUsable()
+                && !ReadYourWritesFilter.isPinnedToPrimary();
+        return replicaRead ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    // Falha ao obter conexão da réplica não derruba a leitura: marca a réplica como indisponível e usa o primário
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineTargetDataSource() != replica) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException ex) {
+            replicaHealth.markDown(ex.getMessage());
+            return primary.getConnection();
+        }
+    }
+}
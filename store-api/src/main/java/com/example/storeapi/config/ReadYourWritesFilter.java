@@ -0,0 +1,60 @@
+package com.example.storeapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+// Read-your-writes: depois de uma escrita, as leituras do mesmo cliente vão ao primário durante `window`,
+// para não lerem uma réplica que ainda não recebeu a escrita. O cliente é identificado pelo header
+// X-Client-Id ou, na falta dele, pelo IP. A janela é local à instância (use sticky sessions no balanceador).
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = clientKey(request);
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (!write && recentWriters.getIfPresent(client) != null) {
+            PINNED.set(Boolean.TRUE);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PINNED.remove();
+            if (write) {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+        }
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? "id:" + clientId : "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.storeapi.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.logging.Logger;
+
+// Estado da réplica de leitura: consultada periodicamente (lag-query) e marcada como indisponível quando
+// não responde ou quando o atraso de replicação passa de maxLag. Enquanto indisponível, leituras vão ao primário.
+public class ReplicaHealth implements MeterBinder {
+
+    private static final Logger LOG = Logger.getLogger(ReplicaHealth.class.getName());
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    // Começa indisponível: a primeira verificação roda logo após a inicialização
+    private volatile boolean usable;
+    private volatile boolean checked;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaHealth(DataSource replica, String lagQuery, Duration maxLag) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${store.datasource.replica.check-interval:PT5S}")
+    public void check() {
+        try (Connection c = replica.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(lagQuery)) {
+            rs.next();
+            double lag = rs.getDouble(1);
+            lagSeconds = lag;
+            if (lag * 1000 > maxLag.toMillis()) {
+                update(false, "replication lag " + lag + "s exceeds " + maxLag);
+            } else {
+                update(true, "replication lag " + lag + "s");
+            }
+        } catch (SQLException ex) {
+            lagSeconds = Double.NaN;
+            update(false, ex.getMessage());
+        }
+    }
+
+    // Chamado quando uma requisição não conseguiu conexão da réplica; a próxima verificação pode reativá-la
+    public void markDown(String reason) {
+        update(false, reason);
+    }
+
+    private void update(boolean nowUsable, String reason) {
+        if (!checked || usable != nowUsable) {
+            if (nowUsable) {
+                LOG.info("Read replica available (" + reason + "); read-only transactions routed to replica");
+            } else {
+                LOG.warning("Read replica unavailable (" + reason + "); read-only transactions routed to primary");
+            }
+        }
+        usable = nowUsable;
+        checked = true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("store.datasource.replica.usable", this, h -> h.usable ? 1 : 0)
+                .description("1 when read-only transactions are routed to the replica")
+                .register(registry);
+        Gauge.builder("store.datasource.replica.lag", this, h -> h.lagSeconds)
+                .description("Replication lag reported by the replica")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.storeapi.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Conta os statements SQL preparados pelo Hibernate na thread atual; zerado a cada requisição
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.storeapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.logging.Logger;
+
+// Registra quantos statements SQL cada endpoint executou (store.requests.statements, por method/uri)
+// e loga/conta as requisições que excederam o @QueryBudget do endpoint.
+public class StatementMetricsInterceptor implements HandlerInterceptor {
+
+    private static final Logger LOG = Logger.getLogger(StatementMetricsInterceptor.class.getName());
+
+    private final MeterRegistry registry;
+
+    public StatementMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int executed = StatementCounter.current();
+        String uri = uriPattern(request);
+        DistributionSummary.builder("store.requests.statements")
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(executed);
+
+        QueryBudget budget = handler instanceof HandlerMethod method ? method.getMethodAnnotation(QueryBudget.class) : null;
+        if (budget != null && executed > budget.value()) {
+            LOG.warning("Query budget exceeded: " + request.getMethod() + " " + uri + " executed " + executed
+                    + " statements (budget " + budget.value() + ")");
+            registry.counter("store.requests.query.budget.exceeded", "method", request.getMethod(), "uri", uri).increment();
+        }
+    }
+
+    private static String uriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.storeapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.logging.Logger;
+
+// Modo virtual threads: spring.threads.virtual.enabled=true (VIRTUAL_THREADS_ENABLED) em runtime Java 21+.
+// O Spring Boot passa a usar virtual threads no Tomcat, no @Async e no @Scheduled.
+@Configuration
+public class VirtualThreadsConfig {
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreadsConfig.class.getName());
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    @PostConstruct
+    void warnIfUnsupported() {
+        if (virtualThreadsRequested && Runtime.version().feature() < 21) {
+            LOG.warning("spring.threads.virtual.enabled=true requires Java 21+; running on Java "
+                    + Runtime.version().feature() + " with platform threads");
+        }
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public FilterRegistrationBean<RequestConcurrencyLimitFilter> requestConcurrencyLimitFilter(
+            @Value("${store.virtual-threads.max-concurrent-requests:80}") int maxConcurrentRequests,
+            @Value("${store.virtual-threads.acquire-timeout:2s}") Duration acquireTimeout,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<RequestConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new RequestConcurrencyLimitFilter(maxConcurrentRequests, acquireTimeout, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
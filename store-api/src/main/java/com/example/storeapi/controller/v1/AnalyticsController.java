@@ -0,0 +1,36 @@
+package com.example.storeapi.controller.v1;
+
+import com.example.storeapi.config.QueryBudget;
+import com.example.storeapi.domain.OrderStatus;
+import com.example.storeapi.dto.analytics.SalesReportDTO;
+import com.example.storeapi.service.SalesAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+public class AnalyticsController {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    public AnalyticsController(SalesAnalyticsService salesAnalyticsService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+    }
+
+    // Receita, unidades e pedidos por dia, categoria ou produto; "to" é exclusivo (datas em UTC)
+    @QueryBudget(1)
+    @GetMapping("/sales")
+    public ResponseEntity<SalesReportDTO> sales(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "groupBy", defaultValue = "day") String groupBy,
+            @RequestParam(value = "status", required = false) List<String> status,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<OrderStatus> statuses = status == null ? List.of() : status.stream().map(OrderStatus::parse).toList();
+        return ResponseEntity.ok(salesAnalyticsService.sales(from, to, groupBy, statuses, limit));
+    }
+}
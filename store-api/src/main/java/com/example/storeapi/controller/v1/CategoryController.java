@@ -1,5 +1,8 @@
 package com.example.storeapi.controller.v1;
 
+import com.example.storeapi.config.QueryBudget;
+import com.example.storeapi.dto.common.CursorPageDTO;
+import com.example.storeapi.dto.common.Fields;
 import com.example.storeapi.dto.category.CategoryCreateDTO;
 import com.example.storeapi.dto.category.CategoryPatchDTO;
 import com.example.storeapi.dto.category.CategoryResponseDTO;
@@ -8,9 +11,11 @@ import com.example.storeapi.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @RestController
@@ -23,6 +28,8 @@ public class CategoryController {
         this.categoryService = categoryService;
     }
 
+    // Escritas: +1 para o carimbo em catalog_versions e +2 para recarregar o CategorySnapshot após o commit
+    @QueryBudget(5)
     @PostMapping
     public ResponseEntity<CategoryResponseDTO> create(@RequestBody @Valid CategoryCreateDTO dto,
                                                       UriComponentsBuilder uriBuilder) {
@@ -32,26 +39,57 @@ public class CategoryController {
         ).body(created);
     }
 
+    // Leituras vêm do CategorySnapshot; o orçamento cobre a primeira carga dele ou, com ?sort=, página + count no banco
+    @QueryBudget(2)
     @GetMapping
-    public Page<CategoryResponseDTO> list(Pageable pageable) {
+    public Page<CategoryResponseDTO> list(Pageable pageable, @RequestParam(value = "fields", required = false) String fields) {
+        Fields.parse(fields, CategoryResponseDTO.FIELDS);
         return categoryService.list(pageable);
     }
 
+    // Modo cursor (keyset), opt-in via ?limit=N[&after=<cursor>]
+    @QueryBudget(2)
+    @GetMapping(params = "limit")
+    public CursorPageDTO<CategoryResponseDTO> list(@RequestParam(value = "after", required = false) String after,
+                                                   @RequestParam("limit") int limit,
+                                                   @RequestParam(value = "fields", required = false) String fields) {
+        Fields.parse(fields, CategoryResponseDTO.FIELDS);
+        return categoryService.listAfter(after, limit);
+    }
+
+    // If-None-Match com o ETag atual: 304 sem serializar o recurso
+    @QueryBudget(2)
     @GetMapping("/{id}")
-    public CategoryResponseDTO get(@PathVariable("id") Long id) {
-        return categoryService.get(id);
+    public ResponseEntity<CategoryResponseDTO> get(@PathVariable("id") Long id, @RequestParam(value = "fields", required = false) String fields,
+                                                   WebRequest request) {
+        Fields.parse(fields, CategoryResponseDTO.FIELDS);
+        String etag = RepresentationETags.of(categoryService.etag(id), request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(categoryService.get(id));
     }
 
+    // Renomear também grava em product_changes (o nome da categoria está no cache de produtos)
+    @QueryBudget(7)
     @PutMapping("/{id}")
-    public CategoryResponseDTO update(@PathVariable("id") Long id, @RequestBody @Valid CategoryUpdateDTO dto) {
-        return categoryService.update(id, dto);
+    public ResponseEntity<CategoryResponseDTO> update(@PathVariable("id") Long id, @RequestBody @Valid CategoryUpdateDTO dto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        CategoryResponseDTO updated = categoryService.update(id, dto, ifMatch);
+        return ResponseEntity.ok().eTag(RepresentationETags.of(categoryService.etag(id), accept)).body(updated);
     }
 
+    @QueryBudget(7)
     @PatchMapping("/{id}")
-    public CategoryResponseDTO patch(@PathVariable("id") Long id, @RequestBody @Valid CategoryPatchDTO dto) {
-        return categoryService.patch(id, dto);
+    public ResponseEntity<CategoryResponseDTO> patch(@PathVariable("id") Long id, @RequestBody @Valid CategoryPatchDTO dto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        CategoryResponseDTO updated = categoryService.patch(id, dto, ifMatch);
+        return ResponseEntity.ok().eTag(RepresentationETags.of(categoryService.etag(id), accept)).body(updated);
     }
 
+    @QueryBudget(7)
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable("id") Long id) {
@@ -1,5 +1,8 @@
 package com.example.storeapi.controller.v1;
 
+import com.example.storeapi.config.QueryBudget;
+import com.example.storeapi.dto.common.CursorPageDTO;
+import com.example.storeapi.dto.common.Fields;
 import com.example.storeapi.dto.customer.CustomerCreateDTO;
 import com.example.storeapi.dto.customer.CustomerOrderCountDTO;
 import com.example.storeapi.dto.customer.CustomerPatchDTO;
@@ -9,9 +12,11 @@ import com.example.storeapi.service.CustomerService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @RestController
@@ -24,6 +29,7 @@ public class CustomerController {
         this.customerService = customerService;
     }
 
+    @QueryBudget(2)
     @PostMapping
     public ResponseEntity<CustomerResponseDTO> create(@RequestBody @Valid CustomerCreateDTO dto,
                                                       UriComponentsBuilder uriBuilder) {
@@ -33,31 +39,61 @@ public class CustomerController {
         ).body(created);
     }
 
+    @QueryBudget(2)
     @GetMapping
-    public Page<CustomerResponseDTO> list(Pageable pageable) {
+    public Page<CustomerResponseDTO> list(Pageable pageable, @RequestParam(value = "fields", required = false) String fields) {
+        Fields.parse(fields, CustomerResponseDTO.FIELDS);
         return customerService.list(pageable);
     }
 
+    // Modo cursor (keyset), opt-in via ?limit=N[&after=<cursor>]; não executa count(*)
+    @QueryBudget(1)
+    @GetMapping(params = "limit")
+    public CursorPageDTO<CustomerResponseDTO> list(@RequestParam(value = "after", required = false) String after,
+                                                   @RequestParam("limit") int limit,
+                                                   @RequestParam(value = "fields", required = false) String fields) {
+        Fields.parse(fields, CustomerResponseDTO.FIELDS);
+        return customerService.listAfter(after, limit);
+    }
+
+    // If-None-Match com o ETag atual: 304 sem carregar nem serializar o recurso
+    @QueryBudget(2)
     @GetMapping("/{id}")
-    public CustomerResponseDTO get(@PathVariable("id") Long id) {
-        return customerService.get(id);
+    public ResponseEntity<CustomerResponseDTO> get(@PathVariable("id") Long id, @RequestParam(value = "fields", required = false) String fields,
+                                                   WebRequest request) {
+        Fields.parse(fields, CustomerResponseDTO.FIELDS);
+        String etag = RepresentationETags.of(customerService.etag(id), request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(customerService.get(id));
     }
 
+    @QueryBudget(2)
     @GetMapping("/{id}/orders/count")
     public ResponseEntity<CustomerOrderCountDTO> orderCounts(@PathVariable("id") Long id) {
         return ResponseEntity.ok(customerService.orderCounts(id));
     }
 
+    @QueryBudget(4)
     @PutMapping("/{id}")
-    public CustomerResponseDTO update(@PathVariable("id") Long id, @RequestBody @Valid CustomerUpdateDTO dto) {
-        return customerService.update(id, dto);
+    public ResponseEntity<CustomerResponseDTO> update(@PathVariable("id") Long id, @RequestBody @Valid CustomerUpdateDTO dto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        CustomerResponseDTO updated = customerService.update(id, dto, ifMatch);
+        return ResponseEntity.ok().eTag(RepresentationETags.of(customerService.etag(id), accept)).body(updated);
     }
 
+    @QueryBudget(4)
     @PatchMapping("/{id}")
-    public CustomerResponseDTO patch(@PathVariable("id") Long id, @RequestBody @Valid CustomerPatchDTO dto) {
-        return customerService.patch(id, dto);
+    public ResponseEntity<CustomerResponseDTO> patch(@PathVariable("id") Long id, @RequestBody @Valid CustomerPatchDTO dto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        CustomerResponseDTO updated = customerService.patch(id, dto, ifMatch);
+        return ResponseEntity.ok().eTag(RepresentationETags.of(customerService.etag(id), accept)).body(updated);
     }
 
+    @QueryBudget(4)
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable("id") Long id) {
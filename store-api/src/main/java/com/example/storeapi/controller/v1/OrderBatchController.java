@@ -0,0 +1,28 @@
+package com.example.storeapi.controller.v1;
+
+import com.example.storeapi.dto.order.OrderBatchResultDTO;
+import com.example.storeapi.dto.order.OrderCreateDTO;
+import com.example.storeapi.service.OrderService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Mapeado fora de OrderController porque "/orders:batch" não é um sub-caminho de "/orders"
+@RestController
+@RequestMapping("/api/v1")
+public class OrderBatchController {
+
+    private final OrderService orderService;
+
+    public OrderBatchController(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    // Sem @QueryBudget fixo: inserts e nextval crescem com o lote (um JDBC batch / uma chamada a cada 50 linhas);
+    // clientes e produtos são carregados em uma query cada, independentemente do tamanho do lote.
+    @PostMapping("/orders:batch")
+    public ResponseEntity<List<OrderBatchResultDTO>> createBatch(@RequestBody List<OrderCreateDTO> dtos) {
+        return ResponseEntity.ok(orderService.createBatch(dtos));
+    }
+}
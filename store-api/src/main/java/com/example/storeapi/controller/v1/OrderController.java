@@ -1,22 +1,36 @@
 package com.example.storeapi.controller.v1;
 
+import com.example.storeapi.config.QueryBudget;
 import com.example.storeapi.domain.OrderStatus;
+import com.example.storeapi.dto.common.CursorPageDTO;
+import com.example.storeapi.dto.common.Fields;
+import com.example.storeapi.dto.order.OrderBulkStatusResultDTO;
+import com.example.storeapi.dto.order.OrderBulkStatusUpdateDTO;
 import com.example.storeapi.dto.order.OrderCreateDTO;
+import com.example.storeapi.dto.order.OrderFilterDTO;
 import com.example.storeapi.dto.order.OrderResponseDTO;
+import com.example.storeapi.dto.order.OrderStatusTransitionsDTO;
 import com.example.storeapi.dto.order.OrderStatusUpdateDTO;
 import com.example.storeapi.dto.order.OrderUpdateDTO;
+import com.example.storeapi.service.IdempotencyService;
+import com.example.storeapi.service.OrderExportService;
 import com.example.storeapi.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
-import java.util.Arrays;
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Locale;
 
 @RestController
@@ -24,71 +38,169 @@ import java.util.Locale;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final IdempotencyService idempotencyService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderExportService orderExportService,
+                           IdempotencyService idempotencyService) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.idempotencyService = idempotencyService;
     }
 
+    // Com Idempotency-Key, retries (concorrentes ou não) recebem o mesmo pedido em vez de criar outro.
+    // O orçamento inclui as 3 queries de idempotency_keys (select, insert, update) e os 2 nextval que o Hibernate
+    // faz a cada 50 ids de orders_seq/order_items_seq (allocationSize), quando a requisição cai na virada do bloco.
+    @QueryBudget(12)
     @PostMapping
     public ResponseEntity<OrderResponseDTO> create(@RequestBody @Valid OrderCreateDTO dto,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                                    UriComponentsBuilder uriBuilder) {
-        OrderResponseDTO created = orderService.create(dto);
+        OrderResponseDTO created = idempotencyKey == null
+                ? orderService.create(dto)
+                : idempotencyService.execute("POST /api/v1/orders", idempotencyKey, dto, OrderResponseDTO.class,
+                        () -> orderService.create(dto));
         URI location = uriBuilder.path("/api/v1/orders/{id}")
                 .buildAndExpand(created.getId())
                 .toUri();
         return ResponseEntity.created(location).body(created);
     }
 
+    // Filtros opcionais na query string (customerId, status repetível, createdFrom, createdTo), aplicados no SQL.
+    // ?fields= (em todos os GETs) limita os campos da resposta; sem items/customerName itens e cliente nem são lidos.
+    // view=summary (padrão) devolve só o cabeçalho e itemCount: 2 queries (page + count), sem tocar em order_items.
+    @QueryBudget(3)
     @GetMapping
-    public ResponseEntity<Page<OrderResponseDTO>> list(Pageable pageable) {
-        Page<OrderResponseDTO> orders = orderService.list(pageable);
+    public ResponseEntity<Page<OrderResponseDTO>> list(OrderFilterDTO filter, Pageable pageable,
+                                                       @RequestParam(value = "view", defaultValue = "summary") String view,
+                                                       @RequestParam(value = "expand", required = false) String expand,
+                                                       @RequestParam(value = "fields", required = false) String fields) {
+        Page<OrderResponseDTO> orders = orderService.list(filter, pageable, listFields(fields, view, expand));
         return ResponseEntity.ok(orders);
     }
 
+    // Modo cursor (keyset), opt-in via ?limit=N[&after=<cursor>]; não executa count(*). Aceita os mesmos filtros.
+    @QueryBudget(2)
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPageDTO<OrderResponseDTO>> list(OrderFilterDTO filter,
+                                                                @RequestParam(value = "after", required = false) String after,
+                                                                @RequestParam("limit") int limit,
+                                                                @RequestParam(value = "view", defaultValue = "summary") String view,
+                                                                @RequestParam(value = "expand", required = false) String expand,
+                                                                @RequestParam(value = "fields", required = false) String fields) {
+        return ResponseEntity.ok(orderService.listAfter(filter, after, limit, listFields(fields, view, expand)));
+    }
+
+    // Exporta todos os pedidos (com itens) em streaming: format=ndjson (padrão) ou csv; "to" é exclusivo
+    // Sem @QueryBudget: a consulta roda na thread assíncrona do StreamingResponseBody (uma única query em streaming)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(value = "status", required = false) List<String> status) {
+
+        OrderExportService.Format exportFormat;
+        MediaType mediaType;
+        switch (format.trim().toLowerCase(Locale.ROOT)) {
+            case "ndjson" -> {
+                exportFormat = OrderExportService.Format.NDJSON;
+                mediaType = MediaType.APPLICATION_NDJSON;
+            }
+            case "csv" -> {
+                exportFormat = OrderExportService.Format.CSV;
+                mediaType = new MediaType("text", "csv");
+            }
+            default -> throw new IllegalArgumentException("Invalid export format: " + format + ". Use ndjson or csv");
+        }
+        List<OrderStatus> statuses = status == null ? List.of() : status.stream().map(this::parseStatus).toList();
+
+        StreamingResponseBody body = out -> orderExportService.export(exportFormat, from, to, statuses, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + format.trim().toLowerCase(Locale.ROOT) + "\"")
+                .body(body);
+    }
+
+    // Troca de status em massa (ids e/ou filtro): um UPDATE + no máximo uma query para explicar os ids não alterados
+    @QueryBudget(2)
+    @PatchMapping("/status")
+    public ResponseEntity<OrderBulkStatusResultDTO> updateStatusBulk(@RequestBody @Valid OrderBulkStatusUpdateDTO dto) {
+        OrderStatus status = parseStatus(dto.getStatus());
+        List<OrderStatus> fromStatus = dto.getFromStatus() == null
+                ? List.of()
+                : dto.getFromStatus().stream().map(this::parseStatus).toList();
+        return ResponseEntity.ok(orderService.updateStatusBulk(dto.getIds(), fromStatus, dto.getCreatedBefore(), status));
+    }
+
+    // If-None-Match com o ETag atual: 304 só com a query de versões, sem carregar itens nem serializar
+    @QueryBudget(2)
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponseDTO> get(@PathVariable("id") Long id) {
-        OrderResponseDTO order = orderService.get(id);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<OrderResponseDTO> get(@PathVariable("id") Long id, @RequestParam(value = "fields", required = false) String fields,
+                                                WebRequest request) {
+        Fields selected = Fields.parse(fields, OrderResponseDTO.FIELDS);
+        String etag = RepresentationETags.of(orderService.etag(id), request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        OrderResponseDTO order = orderService.get(id, selected);
+        return ResponseEntity.ok().eTag(etag).body(order);
     }
 
+    @QueryBudget(7)
     @PatchMapping("/{id}/status")
     public ResponseEntity<OrderResponseDTO> updateStatus(
             @PathVariable("id") Long id,
-            @RequestBody @Valid OrderStatusUpdateDTO dto) {
-
-        try {
-            OrderStatus status = parseStatus(dto.getStatus());
-            OrderResponseDTO updatedOrder = orderService.updateStatus(id, status);
-            return ResponseEntity.ok(updatedOrder);
-        } catch (IllegalArgumentException e) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST,
-                    "Status inválido: " + dto.getStatus() + ". Status válidos: " + Arrays.toString(OrderStatus.values())
-            );
-        }
+            @RequestBody @Valid OrderStatusUpdateDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        OrderStatus status = parseStatus(dto.getStatus());
+        OrderResponseDTO updatedOrder = orderService.updateStatus(id, status, ifMatch);
+        return ResponseEntity.ok().eTag(RepresentationETags.of(orderService.etag(id), accept)).body(updatedOrder);
+    }
+
+    @QueryBudget(1)
+    @GetMapping("/{id}/status/transitions")
+    public ResponseEntity<OrderStatusTransitionsDTO> transitions(@PathVariable("id") Long id) {
+        return ResponseEntity.ok(orderService.transitions(id));
+    }
+
+    // Package-private para o benchmark JMH
+    // Status inválido vira IllegalArgumentException (400) com a lista de status válidos
+    OrderStatus parseStatus(String raw) {
+        return OrderStatus.parse(raw);
     }
 
-    private OrderStatus parseStatus(String raw) {
-        if (raw == null) {
-            throw new IllegalArgumentException("Status is required");
+    // Campos das listagens: view=summary sem items, view=full ou expand=items com items; ?fields= explícito prevalece
+    private static Fields listFields(String fields, String view, String expand) {
+        List<String> defaults = switch (view.strip().toLowerCase(Locale.ROOT)) {
+            case "summary" -> OrderResponseDTO.SUMMARY_FIELDS;
+            case "full" -> OrderResponseDTO.FIELDS;
+            default -> throw new IllegalArgumentException("Invalid view: " + view + ". Valid views: [summary, full]");
+        };
+        if (expand != null) {
+            if (!expand.strip().equals("items")) {
+                throw new IllegalArgumentException("Invalid expand: " + expand + ". Valid values: [items]");
+            }
+            defaults = OrderResponseDTO.FIELDS;
         }
-        String s = raw.trim().toUpperCase(Locale.ROOT);
-        if (s.equals("PAGO")) s = "PAID";
-        if (s.equals("CANCELADO")) s = "CANCELED";
-        if (s.equals("CRIADO")) s = "CREATED";
-        if (s.equals("PENDENTE")) s = "PENDING";
-        if (s.equals("ENTREGUE")) s = "DELIVERED";
-        return OrderStatus.valueOf(s);
+        return Fields.parse(fields, OrderResponseDTO.FIELDS, defaults);
     }
 
+    // Inclui o nextval de order_items_seq da virada de bloco (itens novos)
+    @QueryBudget(13)
     @PutMapping("/{id}")
     public ResponseEntity<OrderResponseDTO> update(
             @PathVariable("id") Long id,
-            @RequestBody @Valid OrderUpdateDTO dto) {
-        OrderResponseDTO updatedOrder = orderService.update(id, dto);
-        return ResponseEntity.ok(updatedOrder);
+            @RequestBody @Valid OrderUpdateDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        OrderResponseDTO updatedOrder = orderService.update(id, dto, ifMatch);
+        return ResponseEntity.ok().eTag(RepresentationETags.of(orderService.etag(id), accept)).body(updatedOrder);
     }
 
+    @QueryBudget(7)
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public ResponseEntity<Void> delete(@PathVariable("id") Long id) {  // Adicionei ("id") aqui
@@ -1,6 +1,11 @@
 package com.example.storeapi.controller.v1;
 
+import com.example.storeapi.config.QueryBudget;
+import com.example.storeapi.dto.common.CursorPageDTO;
+import com.example.storeapi.dto.common.Fields;
+import com.example.storeapi.dto.product.ProductCacheStatsDTO;
 import com.example.storeapi.dto.product.ProductCreateDTO;
+import com.example.storeapi.dto.product.ProductFilterDTO;
 import com.example.storeapi.dto.product.ProductPatchDTO;
 import com.example.storeapi.dto.product.ProductResponseDTO;
 import com.example.storeapi.dto.product.ProductUpdateDTO;
@@ -8,9 +13,11 @@ import com.example.storeapi.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @RestController
@@ -23,6 +30,7 @@ public class ProductController {
         this.productService = productService;
     }
 
+    @QueryBudget(2)
     @PostMapping
     public ResponseEntity<ProductResponseDTO> create(@RequestBody @Valid ProductCreateDTO dto,
                                                      UriComponentsBuilder uriBuilder) {
@@ -32,26 +40,75 @@ public class ProductController {
         ).body(created);
     }
 
+    // Filtros opcionais na query string (categoryId, status, minPrice, maxPrice, createdAfter), aplicados no SQL.
+    // ?fields= (em todos os GETs) limita os campos da resposta; sem categoryName a categoria nem é lida.
+    @QueryBudget(2)
     @GetMapping
-    public Page<ProductResponseDTO> list(Pageable pageable) {
-        return productService.list(pageable);
+    public Page<ProductResponseDTO> list(ProductFilterDTO filter, Pageable pageable, @RequestParam(value = "fields", required = false) String fields) {
+        return productService.list(filter, pageable, Fields.parse(fields, ProductResponseDTO.FIELDS));
     }
 
+    // Modo cursor (keyset), opt-in via ?limit=N[&after=<cursor>]; não executa count(*). Aceita os mesmos filtros.
+    @QueryBudget(1)
+    @GetMapping(params = "limit")
+    public CursorPageDTO<ProductResponseDTO> list(ProductFilterDTO filter,
+                                                  @RequestParam(value = "after", required = false) String after,
+                                                  @RequestParam("limit") int limit,
+                                                  @RequestParam(value = "fields", required = false) String fields) {
+        return productService.listAfter(filter, after, limit, Fields.parse(fields, ProductResponseDTO.FIELDS));
+    }
+
+    // Busca full-text, com fallback aproximado (erros de digitação); ranqueada e paginada por cursor como a listagem
+    @QueryBudget(3)
+    @GetMapping("/search")
+    public CursorPageDTO<ProductResponseDTO> search(@RequestParam("q") String q,
+                                                    @RequestParam(value = "categoryId", required = false) Long categoryId,
+                                                    @RequestParam(value = "after", required = false) String after,
+                                                    @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                                    @RequestParam(value = "fields", required = false) String fields) {
+        return productService.search(q, categoryId, after, limit, Fields.parse(fields, ProductResponseDTO.FIELDS));
+    }
+
+    // If-None-Match com o ETag atual: 304 sem carregar nem serializar o recurso
+    @QueryBudget(2)
     @GetMapping("/{id}")
-    public ProductResponseDTO get(@PathVariable("id") Long id) {
-        return productService.get(id);
+    public ResponseEntity<ProductResponseDTO> get(@PathVariable("id") Long id, @RequestParam(value = "fields", required = false) String fields,
+                                                  WebRequest request) {
+        Fields.parse(fields, ProductResponseDTO.FIELDS);
+        String etag = RepresentationETags.of(productService.etag(id), request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(productService.get(id));
+    }
+
+    @QueryBudget(0)
+    @GetMapping("/cache/stats")
+    public ProductCacheStatsDTO cacheStats() {
+        return productService.cacheStats();
     }
 
+    // Escritas: +1 para o insert em product_changes, que invalida o produto no cache das outras instâncias. PUT e
+    // PATCH: +1 só com If-Match, que carrega a categoria para calcular o ETag atual
+    @QueryBudget(5)
     @PutMapping("/{id}")
-    public ProductResponseDTO update(@PathVariable("id") Long id, @RequestBody @Valid ProductUpdateDTO dto) {
-        return productService.update(id, dto);
+    public ResponseEntity<ProductResponseDTO> update(@PathVariable("id") Long id, @RequestBody @Valid ProductUpdateDTO dto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ProductResponseDTO updated = productService.update(id, dto, ifMatch);
+        return ResponseEntity.ok().eTag(RepresentationETags.of(productService.etag(id), accept)).body(updated);
     }
 
+    @QueryBudget(5)
     @PatchMapping("/{id}")
-    public ProductResponseDTO patch(@PathVariable("id") Long id, @RequestBody @Valid ProductPatchDTO dto) {
-        return productService.patch(id, dto);
+    public ResponseEntity<ProductResponseDTO> patch(@PathVariable("id") Long id, @RequestBody @Valid ProductPatchDTO dto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ProductResponseDTO updated = productService.patch(id, dto, ifMatch);
+        return ResponseEntity.ok().eTag(RepresentationETags.of(productService.etag(id), accept)).body(updated);
     }
 
+    @QueryBudget(5)
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable("id") Long id) {
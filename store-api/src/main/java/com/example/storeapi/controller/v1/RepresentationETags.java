@@ -0,0 +1,36 @@
+package com.example.storeapi.controller.v1;
+
+import org.springframework.http.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+
+// ETag por representação: JSON e CBOR do mesmo recurso são bytes diferentes, então não podem ter o mesmo ETag forte
+// (o If-None-Match guardado de uma daria 304 para quem pede a outra). O CBOR leva o sufixo -cbor; o JSON, padrão,
+// fica com o ETag do serviço. If-Match aceita as duas formas (ETags.requireMatch ignora o sufixo).
+final class RepresentationETags {
+
+    private RepresentationETags() {}
+
+    static String of(String etag, String accept) {
+        return isCbor(accept) ? etag.substring(0, etag.length() - 1) + "-cbor\"" : etag;
+    }
+
+    // Mesma escolha do content negotiation: o tipo aceito de maior q decide; */* e application/* ficam com o JSON
+    private static boolean isCbor(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> types = MediaType.parseMediaTypes(accept);
+        types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : types) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
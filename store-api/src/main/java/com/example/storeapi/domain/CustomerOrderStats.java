@@ -0,0 +1,31 @@
+package com.example.storeapi.domain;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+// Contadores mantidos incrementalmente por CustomerOrderStatsService; não alterar via entidade
+@Entity
+@Table(name = "customer_order_stats")
+public class CustomerOrderStats {
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(nullable = false)
+    private long totalOrders;
+
+    @Column(nullable = false)
+    private long openOrders;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal lifetimeValue;
+
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+    public long getTotalOrders() { return totalOrders; }
+    public void setTotalOrders(long totalOrders) { this.totalOrders = totalOrders; }
+    public long getOpenOrders() { return openOrders; }
+    public void setOpenOrders(long openOrders) { this.openOrders = openOrders; }
+    public BigDecimal getLifetimeValue() { return lifetimeValue; }
+    public void setLifetimeValue(BigDecimal lifetimeValue) { this.lifetimeValue = lifetimeValue; }
+}
@@ -0,0 +1,9 @@
+package com.example.storeapi.domain;
+
+// Tipos gravados em order_events.event_type
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_UPDATED,
+    ORDER_STATUS_CHANGED,
+    ORDER_DELETED
+}
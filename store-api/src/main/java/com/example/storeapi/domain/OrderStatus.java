@@ -1,7 +1,100 @@
 package com.example.storeapi.domain;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
 public enum OrderStatus {
     CREATED,
     PAID,
-    DELIVERED, PENDING, CANCELED
+    DELIVERED, PENDING, CANCELED;
+
+    private static final OrderStatus[] VALUES = values();
+
+    // Tabela de transições: bit i de NEXT[s.ordinal()] = s pode ir para VALUES[i]. Mudar de regra é mudar só aqui.
+    // Hoje tudo é permitido, exceto reabrir um pedido entregue como PENDING; ficar no mesmo status não é transição.
+    private static final long[] NEXT = new long[VALUES.length];
+
+    static {
+        allow(CREATED, PAID, DELIVERED, PENDING, CANCELED);
+        allow(PAID, CREATED, DELIVERED, PENDING, CANCELED);
+        allow(PENDING, CREATED, PAID, DELIVERED, CANCELED);
+        allow(DELIVERED, CREATED, PAID, CANCELED);
+        allow(CANCELED, CREATED, PAID, DELIVERED, PENDING);
+    }
+
+    // Conjuntos derivados da tabela, imutáveis e calculados uma vez (usados no endpoint de transições e no bulk)
+    private static final Set<OrderStatus>[] NEXT_SETS = toSets(false);
+    private static final Set<OrderStatus>[] PREDECESSOR_SETS = toSets(true);
+
+    // Nomes do enum e aliases em português; a busca ignora caixa sem criar strings
+    private static final Map<String, OrderStatus> ALIASES;
+
+    static {
+        TreeMap<String, OrderStatus> aliases = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (OrderStatus s : VALUES) {
+            aliases.put(s.name(), s);
+        }
+        aliases.put("CRIADO", CREATED);
+        aliases.put("PAGO", PAID);
+        aliases.put("ENTREGUE", DELIVERED);
+        aliases.put("PENDENTE", PENDING);
+        aliases.put("CANCELADO", CANCELED);
+        aliases.put("CANCELLED", CANCELED);
+        ALIASES = Collections.unmodifiableMap(aliases);
+    }
+
+    // Pedidos fechados não contam como "em aberto"
+    public boolean isClosed() {
+        return this == DELIVERED || this == CANCELED;
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return (NEXT[ordinal()] & (1L << next.ordinal())) != 0;
+    }
+
+    public Set<OrderStatus> nextStates() {
+        return NEXT_SETS[ordinal()];
+    }
+
+    // Status a partir dos quais se pode chegar a este (vira o "status IN (...)" do update em massa)
+    public Set<OrderStatus> predecessors() {
+        return PREDECESSOR_SETS[ordinal()];
+    }
+
+    // Aceita o nome do enum ou um alias, ignorando caixa e espaços nas pontas
+    public static OrderStatus parse(String raw) {
+        if (raw == null) {
+            throw new IllegalArgumentException("Status is required");
+        }
+        OrderStatus status = ALIASES.get(raw.strip());
+        if (status == null) {
+            throw new IllegalArgumentException("Invalid status: " + raw + ". Valid statuses: " + Arrays.toString(VALUES));
+        }
+        return status;
+    }
+
+    private static void allow(OrderStatus from, OrderStatus... to) {
+        for (OrderStatus s : to) {
+            NEXT[from.ordinal()] |= 1L << s.ordinal();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<OrderStatus>[] toSets(boolean reverse) {
+        Set<OrderStatus>[] sets = new Set[VALUES.length];
+        for (OrderStatus s : VALUES) {
+            EnumSet<OrderStatus> set = EnumSet.noneOf(OrderStatus.class);
+            for (OrderStatus other : VALUES) {
+                if (reverse ? other.canTransitionTo(s) : s.canTransitionTo(other)) {
+                    set.add(other);
+                }
+            }
+            sets[s.ordinal()] = Collections.unmodifiableSet(set);
+        }
+        return sets;
+    }
 }
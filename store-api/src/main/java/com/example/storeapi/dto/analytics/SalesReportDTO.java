@@ -0,0 +1,37 @@
+package com.example.storeapi.dto.analytics;
+
+import com.example.storeapi.domain.OrderStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+public class SalesReportDTO {
+    private LocalDate from;
+    // exclusivo
+    private LocalDate to;
+    private String groupBy;
+    private Set<OrderStatus> statuses;
+    private List<SalesRowDTO> rows;
+
+    public SalesReportDTO() {}
+
+    public SalesReportDTO(LocalDate from, LocalDate to, String groupBy, Set<OrderStatus> statuses, List<SalesRowDTO> rows) {
+        this.from = from;
+        this.to = to;
+        this.groupBy = groupBy;
+        this.statuses = statuses;
+        this.rows = rows;
+    }
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    public String getGroupBy() { return groupBy; }
+    public void setGroupBy(String groupBy) { this.groupBy = groupBy; }
+    public Set<OrderStatus> getStatuses() { return statuses; }
+    public void setStatuses(Set<OrderStatus> statuses) { this.statuses = statuses; }
+    public List<SalesRowDTO> getRows() { return rows; }
+    public void setRows(List<SalesRowDTO> rows) { this.rows = rows; }
+}
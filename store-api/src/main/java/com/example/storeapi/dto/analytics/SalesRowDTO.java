@@ -0,0 +1,39 @@
+package com.example.storeapi.dto.analytics;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class SalesRowDTO {
+    // groupBy=day
+    private LocalDate day;
+    // groupBy=category|product: id e nome atual
+    private Long id;
+    private String name;
+    private BigDecimal revenue;
+    private long units;
+    private long orders;
+
+    public SalesRowDTO() {}
+
+    public SalesRowDTO(LocalDate day, Long id, String name, BigDecimal revenue, long units, long orders) {
+        this.day = day;
+        this.id = id;
+        this.name = name;
+        this.revenue = revenue;
+        this.units = units;
+        this.orders = orders;
+    }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+    public long getOrders() { return orders; }
+    public void setOrders(long orders) { this.orders = orders; }
+}
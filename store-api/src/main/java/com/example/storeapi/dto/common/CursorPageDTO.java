@@ -0,0 +1,21 @@
+package com.example.storeapi.dto.common;
+
+import java.util.List;
+
+public class CursorPageDTO<T> {
+    private List<T> content;
+    // null quando não há próxima página
+    private String nextCursor;
+
+    public CursorPageDTO() {}
+
+    public CursorPageDTO(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,76 @@
+package com.example.storeapi.dto.common;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Sparse fieldsets dos GETs (?fields=id,status,total). Os DTOs de resposta marcados com @JsonFilter(FILTER_ID) só
+// serializam os campos pedidos (FieldsResponseBodyAdvice); os services usam has() para não carregar o que não sai.
+public final class Fields {
+
+    public static final String PARAM = "fields";
+    public static final String FILTER_ID = "fields";
+
+    public static final Fields ALL = new Fields(null);
+
+    // null = todos os campos
+    private final Set<String> names;
+
+    private Fields(Set<String> names) {
+        this.names = names;
+    }
+
+    // Ausente ou vazio = todos; nome desconhecido vira 400 com a lista de campos válidos do DTO
+    public static Fields parse(String raw, List<String> allowed) {
+        return parse(raw, allowed, null);
+    }
+
+    // Como parse(raw, allowed), mas sem ?fields= vale "defaults" (ex.: visão resumida das listagens)
+    public static Fields parse(String raw, List<String> allowed, Collection<String> defaults) {
+        Set<String> names = split(raw);
+        if (names.isEmpty()) {
+            return defaults == null ? ALL : new Fields(Set.copyOf(defaults));
+        }
+        for (String name : names) {
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + ". Valid fields: " + allowed);
+            }
+        }
+        return new Fields(Collections.unmodifiableSet(names));
+    }
+
+    static Set<String> split(String raw) {
+        Set<String> names = new LinkedHashSet<>();
+        if (raw != null) {
+            for (String part : raw.split(",")) {
+                if (!part.isBlank()) {
+                    names.add(part.strip());
+                }
+            }
+        }
+        return names;
+    }
+
+    public boolean has(String name) {
+        return names == null || names.contains(name);
+    }
+
+    // Filtro a aplicar na serialização desta resposta
+    public static FilterProvider filterFor(String raw) {
+        Set<String> names = split(raw);
+        return new SimpleFilterProvider().addFilter(FILTER_ID, names.isEmpty()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+
+    // Filtro padrão dos ObjectMappers: sem ?fields= (ou fora de um GET) tudo é serializado
+    public static FilterProvider serializeAll() {
+        return new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.serializeAll());
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.storeapi.dto.customer;
 
+import java.math.BigDecimal;
+
 public class CustomerOrderCountDTO {
     private long total;
     private long open;
+    // soma dos pedidos não cancelados
+    private BigDecimal lifetimeValue;
 
     public CustomerOrderCountDTO() {}
 
-    public CustomerOrderCountDTO(long total, long open) {
+    public CustomerOrderCountDTO(long total, long open, BigDecimal lifetimeValue) {
         this.total = total;
         this.open = open;
+        this.lifetimeValue = lifetimeValue;
     }
 
     public long getTotal() { return total; }
@@ -16,4 +21,7 @@ public class CustomerOrderCountDTO {
 
     public long getOpen() { return open; }
     public void setOpen(long open) { this.open = open; }
+
+    public BigDecimal getLifetimeValue() { return lifetimeValue; }
+    public void setLifetimeValue(BigDecimal lifetimeValue) { this.lifetimeValue = lifetimeValue; }
 }
@@ -1,8 +1,16 @@
 package com.example.storeapi.dto.customer;
 
+import com.example.storeapi.dto.common.Fields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import java.time.OffsetDateTime;
+import java.util.List;
 
+@JsonFilter(Fields.FILTER_ID)
 public class CustomerResponseDTO {
+    // Nomes aceitos em ?fields=
+    public static final List<String> FIELDS = List.of("id", "name", "email", "phone", "createdAt");
+
     private Long id;
     private String name;
     private String email;
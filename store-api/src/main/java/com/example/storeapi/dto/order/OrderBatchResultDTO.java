@@ -0,0 +1,35 @@
+package com.example.storeapi.dto.order;
+
+public class OrderBatchResultDTO {
+    // posição do pedido no lote enviado
+    private int index;
+    private boolean success;
+    private Long orderId;
+    private String error;
+
+    public OrderBatchResultDTO() {}
+
+    public OrderBatchResultDTO(int index, boolean success, Long orderId, String error) {
+        this.index = index;
+        this.success = success;
+        this.orderId = orderId;
+        this.error = error;
+    }
+
+    public static OrderBatchResultDTO created(int index, Long orderId) {
+        return new OrderBatchResultDTO(index, true, orderId, null);
+    }
+
+    public static OrderBatchResultDTO failed(int index, String error) {
+        return new OrderBatchResultDTO(index, false, null, error);
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
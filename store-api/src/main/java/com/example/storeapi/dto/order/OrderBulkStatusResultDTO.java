@@ -0,0 +1,49 @@
+package com.example.storeapi.dto.order;
+
+import com.example.storeapi.domain.OrderStatus;
+
+import java.util.List;
+
+public class OrderBulkStatusResultDTO {
+    private OrderStatus status;
+    private int updated;
+    // Só os ids pedidos explicitamente que não foram alterados (no modo filtro, fica vazio)
+    private List<Failure> failed;
+
+    public OrderBulkStatusResultDTO() {}
+
+    public OrderBulkStatusResultDTO(OrderStatus status, int updated, List<Failure> failed) {
+        this.status = status;
+        this.updated = updated;
+        this.failed = failed;
+    }
+
+    public static class Failure {
+        private Long id;
+        // null quando o pedido não existe
+        private OrderStatus currentStatus;
+        private String error;
+
+        public Failure() {}
+
+        public Failure(Long id, OrderStatus currentStatus, String error) {
+            this.id = id;
+            this.currentStatus = currentStatus;
+            this.error = error;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public OrderStatus getCurrentStatus() { return currentStatus; }
+        public void setCurrentStatus(OrderStatus currentStatus) { this.currentStatus = currentStatus; }
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+    public int getUpdated() { return updated; }
+    public void setUpdated(int updated) { this.updated = updated; }
+    public List<Failure> getFailed() { return failed; }
+    public void setFailed(List<Failure> failed) { this.failed = failed; }
+}
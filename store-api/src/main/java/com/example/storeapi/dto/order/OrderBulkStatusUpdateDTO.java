@@ -0,0 +1,32 @@
+package com.example.storeapi.dto.order;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+// PATCH /orders/status: informe ids e/ou filtro (fromStatus, createdBefore); os critérios se combinam com AND
+public class OrderBulkStatusUpdateDTO {
+
+    @NotBlank(message = "Status é obrigatório")
+    private String status;
+
+    @Size(max = 5000, message = "No máximo 5000 ids por requisição")
+    private List<Long> ids;
+
+    // Filtro: só pedidos que estão nesses status
+    private List<String> fromStatus;
+
+    // Filtro: só pedidos criados antes desse instante
+    private OffsetDateTime createdBefore;
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    public List<String> getFromStatus() { return fromStatus; }
+    public void setFromStatus(List<String> fromStatus) { this.fromStatus = fromStatus; }
+    public OffsetDateTime getCreatedBefore() { return createdBefore; }
+    public void setCreatedBefore(OffsetDateTime createdBefore) { this.createdBefore = createdBefore; }
+}
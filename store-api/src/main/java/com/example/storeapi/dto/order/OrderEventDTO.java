@@ -0,0 +1,43 @@
+package com.example.storeapi.dto.order;
+
+import com.example.storeapi.domain.OrderEventType;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.OffsetDateTime;
+
+// Evento entregue aos sinks. Entrega at-least-once: consumidores devem deduplicar pelo id.
+public class OrderEventDTO {
+    private Long id;
+    private OrderEventType type;
+    private Long orderId;
+    private OffsetDateTime createdAt;
+    // tentativas anteriores que falharam
+    private int attempts;
+    // JSON gravado na escrita: orderId, customerId, status, previousStatus, total
+    @JsonRawValue
+    private String payload;
+
+    public OrderEventDTO() {}
+
+    public OrderEventDTO(Long id, OrderEventType type, Long orderId, OffsetDateTime createdAt, int attempts, String payload) {
+        this.id = id;
+        this.type = type;
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+        this.attempts = attempts;
+        this.payload = payload;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public OrderEventType getType() { return type; }
+    public void setType(OrderEventType type) { this.type = type; }
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+}
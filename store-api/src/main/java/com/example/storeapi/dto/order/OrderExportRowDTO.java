@@ -0,0 +1,49 @@
+package com.example.storeapi.dto.order;
+
+import com.example.storeapi.domain.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// Uma linha por item de pedido, projetada direto da query de exportação (sem entidades gerenciadas)
+public class OrderExportRowDTO {
+    private final Long orderId;
+    private final OffsetDateTime createdAt;
+    private final OrderStatus status;
+    private final BigDecimal total;
+    private final Long customerId;
+    private final String customerName;
+    private final Long productId;
+    private final String productName;
+    private final Integer quantity;
+    private final BigDecimal unitPrice;
+    private final BigDecimal subtotal;
+
+    public OrderExportRowDTO(Long orderId, OffsetDateTime createdAt, OrderStatus status, BigDecimal total,
+                             Long customerId, String customerName, Long productId, String productName,
+                             Integer quantity, BigDecimal unitPrice, BigDecimal subtotal) {
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+        this.status = status;
+        this.total = total;
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.subtotal = subtotal;
+    }
+
+    public Long getOrderId() { return orderId; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public OrderStatus getStatus() { return status; }
+    public BigDecimal getTotal() { return total; }
+    public Long getCustomerId() { return customerId; }
+    public String getCustomerName() { return customerName; }
+    public Long getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public Integer getQuantity() { return quantity; }
+    public BigDecimal getUnitPrice() { return unitPrice; }
+    public BigDecimal getSubtotal() { return subtotal; }
+}
@@ -0,0 +1,31 @@
+package com.example.storeapi.dto.order;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+// Filtros de GET /orders (query string); todos opcionais e combinados com AND
+public class OrderFilterDTO {
+
+    private Long customerId;
+
+    // Repetível (?status=PAID&status=PENDING); aceita os mesmos aliases do PATCH de status
+    private List<String> status;
+
+    // [createdFrom, createdTo), como no export
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime createdTo;
+
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+    public List<String> getStatus() { return status; }
+    public void setStatus(List<String> status) { this.status = status; }
+    public OffsetDateTime getCreatedFrom() { return createdFrom; }
+    public void setCreatedFrom(OffsetDateTime createdFrom) { this.createdFrom = createdFrom; }
+    public OffsetDateTime getCreatedTo() { return createdTo; }
+    public void setCreatedTo(OffsetDateTime createdTo) { this.createdTo = createdTo; }
+}
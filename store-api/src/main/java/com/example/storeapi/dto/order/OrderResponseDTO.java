@@ -1,27 +1,43 @@
 package com.example.storeapi.dto.order;
 
+import com.example.storeapi.dto.common.Fields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
 
+@JsonFilter(Fields.FILTER_ID)
 public class OrderResponseDTO {
+    // Nomes aceitos em ?fields=
+    public static final List<String> FIELDS = List.of("id", "customerId", "customerName", "total", "status", "createdAt",
+            "itemCount", "items");
+    // view=summary (padrão das listagens): só o cabeçalho, sem ler order_items
+    public static final List<String> SUMMARY_FIELDS = List.of("id", "customerId", "customerName", "total", "status",
+            "createdAt", "itemCount");
+
     private Long id;
     private Long customerId;
     private String customerName;
     private BigDecimal total;
     private String status;
     private OffsetDateTime createdAt;
+    private Integer itemCount;
+    // Fora da resposta quando não foi carregado (view=summary)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<OrderItemResponseDTO> items;
 
     public OrderResponseDTO() {}
 
-    public OrderResponseDTO(Long id, Long customerId, String customerName, BigDecimal total, String status, OffsetDateTime createdAt, List<OrderItemResponseDTO> items) {
+    public OrderResponseDTO(Long id, Long customerId, String customerName, BigDecimal total, String status, OffsetDateTime createdAt, Integer itemCount, List<OrderItemResponseDTO> items) {
         this.id = id;
         this.customerId = customerId;
         this.customerName = customerName;
         this.total = total;
         this.status = status;
         this.createdAt = createdAt;
+        this.itemCount = itemCount;
         this.items = items;
     }
 
@@ -37,6 +53,8 @@ public class OrderResponseDTO {
     public void setStatus(String status) { this.status = status; }
     public OffsetDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+    public Integer getItemCount() { return itemCount; }
+    public void setItemCount(Integer itemCount) { this.itemCount = itemCount; }
     public List<OrderItemResponseDTO> getItems() { return items; }
     public void setItems(List<OrderItemResponseDTO> items) { this.items = items; }
 }
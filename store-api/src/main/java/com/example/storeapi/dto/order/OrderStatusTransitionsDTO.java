@@ -0,0 +1,27 @@
+package com.example.storeapi.dto.order;
+
+import com.example.storeapi.domain.OrderStatus;
+
+import java.util.Set;
+
+public class OrderStatusTransitionsDTO {
+    private Long orderId;
+    private OrderStatus status;
+    // Status para os quais o pedido pode ir agora (PATCH /orders/{id}/status)
+    private Set<OrderStatus> next;
+
+    public OrderStatusTransitionsDTO() {}
+
+    public OrderStatusTransitionsDTO(Long orderId, OrderStatus status, Set<OrderStatus> next) {
+        this.orderId = orderId;
+        this.status = status;
+        this.next = next;
+    }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+    public Set<OrderStatus> getNext() { return next; }
+    public void setNext(Set<OrderStatus> next) { this.next = next; }
+}
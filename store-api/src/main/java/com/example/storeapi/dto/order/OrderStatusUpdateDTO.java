@@ -2,14 +2,11 @@ package com.example.storeapi.dto.order;
 
 import com.example.storeapi.domain.OrderStatus;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 
 public class OrderStatusUpdateDTO {
 
+    // Nome do status ou alias em português; validado por OrderStatus.parse
     @NotBlank(message = "Status é obrigatório")
-    @Pattern(regexp = "PENDING|PROCESSING|SHIPPED|DELIVERED|CANCELLED",
-            flags = Pattern.Flag.CASE_INSENSITIVE,
-            message = "Status deve ser: PENDING, PROCESSING, SHIPPED, DELIVERED ou CANCELLED")
     private String status;
 
     public String getStatus() {
@@ -21,6 +18,6 @@ public class OrderStatusUpdateDTO {
     }
 
     public OrderStatus getStatusAsEnum() {
-        return OrderStatus.valueOf(status.toUpperCase());
+        return OrderStatus.parse(status);
     }
-}
\ No newline at end of file
+}
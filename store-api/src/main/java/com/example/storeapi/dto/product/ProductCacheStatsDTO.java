@@ -0,0 +1,34 @@
+package com.example.storeapi.dto.product;
+
+public class ProductCacheStatsDTO {
+    private boolean enabled;
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+
+    public ProductCacheStatsDTO() {}
+
+    public ProductCacheStatsDTO(boolean enabled, long size, long hits, long misses, long evictions, double hitRate) {
+        this.enabled = enabled;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.hitRate = hitRate;
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+    public long getEvictions() { return evictions; }
+    public void setEvictions(long evictions) { this.evictions = evictions; }
+    public double getHitRate() { return hitRate; }
+    public void setHitRate(double hitRate) { this.hitRate = hitRate; }
+}
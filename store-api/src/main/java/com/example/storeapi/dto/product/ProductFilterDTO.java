@@ -0,0 +1,34 @@
+package com.example.storeapi.dto.product;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// Filtros de GET /products (query string); todos opcionais e combinados com AND
+public class ProductFilterDTO {
+
+    private Long categoryId;
+
+    // ACTIVE ou INACTIVE
+    private String status;
+
+    // Faixa de preço, inclusiva nas duas pontas
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    // Só produtos criados a partir desse instante
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime createdAfter;
+
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+    public OffsetDateTime getCreatedAfter() { return createdAfter; }
+    public void setCreatedAfter(OffsetDateTime createdAfter) { this.createdAfter = createdAfter; }
+}
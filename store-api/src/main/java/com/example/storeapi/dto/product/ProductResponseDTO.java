@@ -1,9 +1,17 @@
 package com.example.storeapi.dto.product;
 
+import com.example.storeapi.dto.common.Fields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.List;
 
+@JsonFilter(Fields.FILTER_ID)
 public class ProductResponseDTO {
+    // Nomes aceitos em ?fields=
+    public static final List<String> FIELDS = List.of("id", "name", "description", "price", "status", "categoryId", "categoryName", "createdAt");
+
     private Long id;
     private String name;
     private String description;
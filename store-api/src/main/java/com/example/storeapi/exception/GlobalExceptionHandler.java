@@ -1,13 +1,16 @@
 package com.example.storeapi.exception;
 
+import com.example.storeapi.service.StoreMetrics;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,11 +18,18 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final StoreMetrics metrics;
+
+    public GlobalExceptionHandler(StoreMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiError> handleValidation(MethodArgumentNotValidException ex, HttpServletRequest req) {
         List<String> details = ex.getBindingResult().getFieldErrors().stream()
                 .map(err -> err.getField() + ": " + err.getDefaultMessage())
                 .collect(Collectors.toList());
+        metrics.validationFailed("validation", uriPattern(req));
         ApiError error = new ApiError(HttpStatus.BAD_REQUEST.value(), "Bad Request", "Validation failed", req.getRequestURI(), details);
         return ResponseEntity.badRequest().body(error);
     }
@@ -29,6 +39,7 @@ public class GlobalExceptionHandler {
         List<String> details = ex.getConstraintViolations().stream()
                 .map(v -> v.getPropertyPath() + ": " + v.getMessage())
                 .collect(Collectors.toList());
+        metrics.validationFailed("constraint", uriPattern(req));
         ApiError error = new ApiError(HttpStatus.BAD_REQUEST.value(), "Bad Request", "Constraint violation", req.getRequestURI(), details);
         return ResponseEntity.badRequest().body(error);
     }
@@ -41,6 +52,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler({IllegalArgumentException.class, DataIntegrityViolationException.class})
     public ResponseEntity<ApiError> handleBadRequest(RuntimeException ex, HttpServletRequest req) {
+        metrics.validationFailed(ex instanceof DataIntegrityViolationException ? "integrity" : "argument", uriPattern(req));
         ApiError error = new ApiError(HttpStatus.BAD_REQUEST.value(), "Bad Request", ex.getMessage(), req.getRequestURI(), null);
         return ResponseEntity.badRequest().body(error);
     }
@@ -51,9 +63,28 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiError> handlePreconditionFailed(PreconditionFailedException ex, HttpServletRequest req) {
+        ApiError error = new ApiError(HttpStatus.PRECONDITION_FAILED.value(), "Precondition Failed", ex.getMessage(), req.getRequestURI(), null);
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    // Escrita concorrente detectada pelo @Version no flush
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLock(OptimisticLockingFailureException ex, HttpServletRequest req) {
+        ApiError error = new ApiError(HttpStatus.CONFLICT.value(), "Conflict", "Resource was modified concurrently, reload and retry", req.getRequestURI(), null);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGeneric(Exception ex, HttpServletRequest req) {
         ApiError error = new ApiError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error", ex.getMessage(), req.getRequestURI(), null);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
+
+    // Padrão da rota (/api/v1/orders/{id}) para manter a cardinalidade das tags limitada
+    private static String uriPattern(HttpServletRequest req) {
+        Object pattern = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.storeapi.exception;
+
+// If-Match não confere com o ETag atual do recurso (412)
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
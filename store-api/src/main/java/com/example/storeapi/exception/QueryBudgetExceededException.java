@@ -0,0 +1,8 @@
+package com.example.storeapi.exception;
+
+// Lançada só com store.query-budget.strict=true (dev/CI); em produção o estouro é apenas logado e contado
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
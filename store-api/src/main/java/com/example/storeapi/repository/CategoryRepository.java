@@ -2,9 +2,19 @@ package com.example.storeapi.repository;
 
 import com.example.storeapi.domain.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByNameIgnoreCase(String name);
+
+    // Carimbo do catálogo de categorias (V16): toda escrita incrementa na própria transação, o CategorySnapshot compara
+    @Query(value = "select version from catalog_versions where name = 'categories'", nativeQuery = true)
+    long findCatalogVersion();
+
+    @Modifying
+    @Query(value = "update catalog_versions set version = version + 1 where name = 'categories'", nativeQuery = true)
+    void bumpCatalogVersion();
 }
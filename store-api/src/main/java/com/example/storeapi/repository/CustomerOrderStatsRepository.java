@@ -0,0 +1,57 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.domain.CustomerOrderStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface CustomerOrderStatsRepository extends JpaRepository<CustomerOrderStats, Long> {
+
+    // Upsert atômico: soma os deltas à linha do cliente (cria a linha se ainda não existir)
+    @Modifying
+    @Query(value = "insert into customer_order_stats (customer_id, total_orders, open_orders, lifetime_value) " +
+            "values (:customerId, :total, :open, :value) " +
+            "on conflict (customer_id) do update set " +
+            "total_orders = customer_order_stats.total_orders + excluded.total_orders, " +
+            "open_orders = customer_order_stats.open_orders + excluded.open_orders, " +
+            "lifetime_value = customer_order_stats.lifetime_value + excluded.lifetime_value",
+            nativeQuery = true)
+    void applyDelta(@Param("customerId") Long customerId, @Param("total") long total,
+                    @Param("open") long open, @Param("value") BigDecimal value);
+
+    // Rebuild por faixas (ver CustomerOrderStatsService.rebuild): cria as linhas que faltam para os próximos "limit"
+    // clientes depois de "after", para que todas possam ser travadas antes da agregação
+    @Modifying
+    @Query(value = "insert into customer_order_stats (customer_id) " +
+            "select id from customers where id > :after order by id limit :limit " +
+            "on conflict (customer_id) do nothing",
+            nativeQuery = true)
+    int insertMissingAfter(@Param("after") long after, @Param("limit") int limit);
+
+    // Trava só as linhas da faixa; escritas de pedidos de outros clientes seguem normalmente
+    @Query(value = "select customer_id from customer_order_stats where customer_id > :after " +
+            "order by customer_id limit :limit for update",
+            nativeQuery = true)
+    List<Long> lockAfter(@Param("after") long after, @Param("limit") int limit);
+
+    // Recalcula a partir de orders só as linhas travadas (uma linha nova, não travada, poderia receber um delta
+    // confirmado depois do snapshot deste statement e ser sobrescrita com um valor sem ele)
+    @Modifying
+    @Query(value = "update customer_order_stats s set " +
+            "total_orders = a.total_orders, open_orders = a.open_orders, lifetime_value = a.lifetime_value " +
+            "from (select c.customer_id, count(o.id) as total_orders, " +
+            "count(o.id) filter (where o.status not in ('DELIVERED', 'CANCELED')) as open_orders, " +
+            "coalesce(sum(o.total) filter (where o.status <> 'CANCELED'), 0) as lifetime_value " +
+            "from customer_order_stats c left join orders o on o.customer_id = c.customer_id " +
+            "where c.customer_id in (:ids) group by c.customer_id) a " +
+            "where s.customer_id = a.customer_id " +
+            "and (s.total_orders, s.open_orders, s.lifetime_value) " +
+            "is distinct from (a.total_orders, a.open_orders, a.lifetime_value)",
+            nativeQuery = true)
+    int rebuildFromOrders(@Param("ids") Collection<Long> ids);
+}
@@ -1,10 +1,20 @@
 package com.example.storeapi.repository;
 
 import com.example.storeapi.domain.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByEmailIgnoreCase(String email);
+
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Só a versão, para ETag / If-None-Match sem carregar a entidade
+    @Query("select c.version from Customer c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
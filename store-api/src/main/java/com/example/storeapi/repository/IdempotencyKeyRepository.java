@@ -0,0 +1,76 @@
+package com.example.storeapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Tabela idempotency_keys (sem entidade JPA: só SQL nativo, sempre dentro da transação do chamador)
+@Repository
+public class IdempotencyKeyRepository {
+
+    public static final class StoredResponse {
+        private final String requestHash;
+        private final String responseBody;
+
+        StoredResponse(String requestHash, String responseBody) {
+            this.requestHash = requestHash;
+            this.responseBody = responseBody;
+        }
+
+        public String getRequestHash() { return requestHash; }
+        public String getResponseBody() { return responseBody; }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Optional<StoredResponse> findActive(String scope, String key) {
+        List<?> rows = entityManager.createNativeQuery(
+                        "select request_hash, response_body from idempotency_keys " +
+                        "where scope = :scope and idempotency_key = :key and expires_at > now()")
+                .setParameter("scope", scope)
+                .setParameter("key", key)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.get(0);
+        return Optional.of(new StoredResponse((String) row[0], (String) row[1]));
+    }
+
+    // Reserva a chave (ou reaproveita uma linha expirada). Retorna false se outra transação já a possui;
+    // se essa transação ainda estiver aberta, o insert espera o commit/rollback dela.
+    public boolean claim(String scope, String key, String requestHash, OffsetDateTime expiresAt) {
+        return entityManager.createNativeQuery(
+                        "insert into idempotency_keys (scope, idempotency_key, request_hash, expires_at) " +
+                        "values (:scope, :key, :hash, :expiresAt) " +
+                        "on conflict (scope, idempotency_key) do update set " +
+                        "request_hash = excluded.request_hash, response_body = null, " +
+                        "created_at = now(), expires_at = excluded.expires_at " +
+                        "where idempotency_keys.expires_at <= now()")
+                .setParameter("scope", scope)
+                .setParameter("key", key)
+                .setParameter("hash", requestHash)
+                .setParameter("expiresAt", expiresAt)
+                .executeUpdate() == 1;
+    }
+
+    public void complete(String scope, String key, String responseBody) {
+        entityManager.createNativeQuery(
+                        "update idempotency_keys set response_body = :body " +
+                        "where scope = :scope and idempotency_key = :key")
+                .setParameter("body", responseBody)
+                .setParameter("scope", scope)
+                .setParameter("key", key)
+                .executeUpdate();
+    }
+
+    public int deleteExpired() {
+        return entityManager.createNativeQuery("delete from idempotency_keys where expires_at <= now()")
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.domain.OrderStatus;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface OrderBulkStatusRepository {
+    // Um único statement: trava e atualiza (status, version) só dos pedidos cujo status atual está em "from",
+    // aplica os deltas em customer_order_stats e nos rollups de vendas (sales_deltas) e grava um
+    // ORDER_STATUS_CHANGED por pedido em order_events.
+    // Nenhuma entidade é carregada.
+    // ids e createdBefore são opcionais (null = sem restrição). Retorna id -> status anterior dos pedidos alterados.
+    Map<Long, OrderStatus> updateStatusWhere(Collection<Long> ids, Collection<OrderStatus> from,
+                                             OffsetDateTime createdBefore, OrderStatus target);
+}
@@ -0,0 +1,70 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.domain.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class OrderBulkStatusRepositoryImpl implements OrderBulkStatusRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<Long, OrderStatus> updateStatusWhere(Collection<Long> ids, Collection<OrderStatus> from,
+                                                    OffsetDateTime createdBefore, OrderStatus target) {
+        // "for update" no CTE: em READ COMMITTED, uma linha alterada em paralelo é reavaliada depois do lock,
+        // então o status anterior devolvido é o que de fato foi substituído.
+        // Os deltas de customer_order_stats seguem as mesmas regras de CustomerOrderStatsService
+        // (fechado = DELIVERED/CANCELED; CANCELED não soma no lifetime_value).
+        StringBuilder sql = new StringBuilder(
+                "with prev as (select id, status from orders where status in (:from)");
+        if (ids != null) sql.append(" and id in (:ids)");
+        if (createdBefore != null) sql.append(" and created_at < :createdBefore");
+        sql.append(" order by id for update), " +
+                "changed as (" +
+                "update orders o set status = :target, version = o.version + 1 from prev where o.id = prev.id " +
+                "returning o.id, prev.status as previous_status, o.customer_id, o.total), " +
+                "stats as (" +
+                "insert into customer_order_stats (customer_id, total_orders, open_orders, lifetime_value) " +
+                "select customer_id, 0, " +
+                "sum(:targetOpen - case when previous_status in ('DELIVERED', 'CANCELED') then 0 else 1 end), " +
+                "sum(:targetCounted * total - case when previous_status = 'CANCELED' then 0 else total end) " +
+                "from changed group by customer_id " +
+                "on conflict (customer_id) do update set " +
+                "open_orders = customer_order_stats.open_orders + excluded.open_orders, " +
+                "lifetime_value = customer_order_stats.lifetime_value + excluded.lifetime_value), " +
+                // outbox: mesmo payload de OrderOutbox.statusChanged
+                "events as (" +
+                "insert into order_events (order_id, event_type, payload) " +
+                "select id, 'ORDER_STATUS_CHANGED', cast(json_build_object('orderId', id, 'customerId', customer_id, " +
+                "'status', :target, 'previousStatus', previous_status, 'total', total) as text) " +
+                "from changed order by id), " +
+                // rollups de vendas: sai do status anterior, entra no novo (itens lidos do snapshot do statement)
+                "sales as (" + SalesRollupRepository.insertDeltasSql(
+                "select id as order_id, previous_status as status, -1 as sign from changed " +
+                "union all select id, :target, 1 from changed") + ") " +
+                "select id, previous_status from changed");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("from", from.stream().map(Enum::name).toList())
+                .setParameter("target", target.name())
+                .setParameter("targetOpen", target.isClosed() ? 0 : 1)
+                .setParameter("targetCounted", target == OrderStatus.CANCELED ? 0 : 1);
+        if (ids != null) query.setParameter("ids", ids);
+        if (createdBefore != null) query.setParameter("createdBefore", createdBefore);
+
+        Map<Long, OrderStatus> changed = new LinkedHashMap<>();
+        for (Object row : (List<?>) query.getResultList()) {
+            Object[] cols = (Object[]) row;
+            changed.put(((Number) cols[0]).longValue(), OrderStatus.valueOf((String) cols[1]));
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.domain.OrderEventType;
+import com.example.storeapi.dto.order.OrderEventDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Tabela order_events (outbox, sem entidade JPA: só SQL nativo, sempre dentro da transação do chamador)
+@Repository
+public class OrderEventRepository {
+
+    // Linhas por insert multi-valor (3 parâmetros cada, bem abaixo do limite de binds do PostgreSQL)
+    private static final int INSERT_CHUNK = 500;
+
+    public static final class NewEvent {
+        private final Long orderId;
+        private final OrderEventType type;
+        private final String payload;
+
+        public NewEvent(Long orderId, OrderEventType type, String payload) {
+            this.orderId = orderId;
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Um insert por bloco de eventos (a ingestão em lote gera um evento por pedido)
+    public void append(List<NewEvent> events) {
+        for (int from = 0; from < events.size(); from += INSERT_CHUNK) {
+            List<NewEvent> chunk = events.subList(from, Math.min(from + INSERT_CHUNK, events.size()));
+            StringBuilder sql = new StringBuilder("insert into order_events (order_id, event_type, payload) values ");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append("(:o").append(i).append(", :t").append(i).append(", :p").append(i).append(')');
+            }
+            Query query = entityManager.createNativeQuery(sql.toString());
+            for (int i = 0; i < chunk.size(); i++) {
+                NewEvent e = chunk.get(i);
+                query.setParameter("o" + i, e.orderId)
+                        .setParameter("t" + i, e.type.name())
+                        .setParameter("p" + i, e.payload);
+            }
+            query.executeUpdate();
+        }
+    }
+
+    // Reserva até "limit" eventos prontos para envio por leaseMillis: next_attempt_at vai para o fim do lease, então
+    // nenhum outro dispatcher os pega enquanto este publica (fora de transação); se a instância cair, voltam à fila
+    // quando o lease vence. SKIP LOCKED: vários dispatchers (instâncias) dividem a fila sem se bloquear. Só o evento
+    // pendente mais antigo de cada pedido é elegível, para manter a ordem por pedido mesmo com retries e com mais de
+    // um dispatcher (um evento reservado continua pendente e segura os seguintes). O "id = min(id)" correlacionado
+    // para no primeiro pendente do pedido; um NOT EXISTS vira anti-join que, com estatísticas defasadas logo após
+    // uma rajada de eventos, varre todos os pendentes para cada candidato.
+    public List<OrderEventDTO> claimBatch(int limit, long leaseMillis) {
+        List<?> rows = entityManager.createNativeQuery(
+                        "with claimed as (update order_events set next_attempt_at = now() + make_interval(secs => :lease) " +
+                        "where id in (select e.id from order_events e " +
+                        "where e.published_at is null and e.next_attempt_at <= now() " +
+                        "and e.id = (select min(p.id) from order_events p " +
+                        "where p.order_id = e.order_id and p.published_at is null) " +
+                        "order by e.id limit :limit for update skip locked) " +
+                        "returning id, event_type, order_id, created_at, attempts, payload) " +
+                        "select id, event_type, order_id, created_at, attempts, payload from claimed order by id")
+                .setParameter("lease", leaseMillis / 1000.0)
+                .setParameter("limit", limit)
+                .getResultList();
+        List<OrderEventDTO> events = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] cols = (Object[]) row;
+            events.add(new OrderEventDTO(((Number) cols[0]).longValue(), OrderEventType.valueOf((String) cols[1]),
+                    ((Number) cols[2]).longValue(), toOffsetDateTime(cols[3]), ((Number) cols[4]).intValue(), (String) cols[5]));
+        }
+        return events;
+    }
+
+    public void markPublished(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.createNativeQuery("update order_events set published_at = now(), last_error = null where id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    // Devolve à fila, sem contar tentativa, eventos reservados que não chegaram a ser publicados
+    public void release(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.createNativeQuery("update order_events set next_attempt_at = now() where id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    public void markFailed(Long id, String error, long retryInMillis) {
+        entityManager.createNativeQuery(
+                        "update order_events set attempts = attempts + 1, last_error = :error, " +
+                        "next_attempt_at = now() + make_interval(secs => :delay) where id = :id")
+                .setParameter("error", error)
+                .setParameter("delay", retryInMillis / 1000.0)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    // [pendentes, idade do pendente mais antigo em segundos (0 se não houver)]
+    public double[] backlog() {
+        Object[] row = (Object[]) entityManager.createNativeQuery(
+                        "select count(*), coalesce(extract(epoch from now() - min(created_at)), 0) " +
+                        "from order_events where published_at is null")
+                .getSingleResult();
+        return new double[] {((Number) row[0]).doubleValue(), ((Number) row[1]).doubleValue()};
+    }
+
+    public int deletePublishedBefore(OffsetDateTime before) {
+        return entityManager.createNativeQuery("delete from order_events where published_at < :before")
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Object value) {
+        if (value instanceof OffsetDateTime odt) {
+            return odt;
+        }
+        if (value instanceof Instant instant) {
+            return instant.atOffset(ZoneOffset.UTC);
+        }
+        return ((Timestamp) value).toInstant().atOffset(ZoneOffset.UTC);
+    }
+}
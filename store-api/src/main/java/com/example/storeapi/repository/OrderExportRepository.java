@@ -0,0 +1,13 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.domain.OrderStatus;
+import com.example.storeapi.dto.order.OrderExportRowDTO;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+public interface OrderExportRepository {
+    // Linhas ordenadas por pedido; o Stream deve ser fechado pelo chamador dentro de uma transação
+    Stream<OrderExportRowDTO> streamExportRows(OffsetDateTime from, OffsetDateTime to, Collection<OrderStatus> statuses);
+}
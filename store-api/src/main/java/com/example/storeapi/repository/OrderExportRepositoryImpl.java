@@ -0,0 +1,42 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.domain.OrderStatus;
+import com.example.storeapi.dto.order.OrderExportRowDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+class OrderExportRepositoryImpl implements OrderExportRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<OrderExportRowDTO> streamExportRows(OffsetDateTime from, OffsetDateTime to, Collection<OrderStatus> statuses) {
+        StringBuilder jpql = new StringBuilder(
+                "select new com.example.storeapi.dto.order.OrderExportRowDTO(" +
+                "o.id, o.createdAt, o.status, o.total, c.id, c.name, p.id, p.name, i.quantity, i.unitPrice, i.subtotal) " +
+                "from OrderItem i join i.order o join o.customer c join i.product p where 1 = 1");
+        if (from != null) jpql.append(" and o.createdAt >= :from");
+        if (to != null) jpql.append(" and o.createdAt < :to");
+        if (statuses != null && !statuses.isEmpty()) jpql.append(" and o.status in :statuses");
+        jpql.append(" order by o.id, i.id");
+
+        TypedQuery<OrderExportRowDTO> query = entityManager.createQuery(jpql.toString(), OrderExportRowDTO.class);
+        if (from != null) query.setParameter("from", from);
+        if (to != null) query.setParameter("to", to);
+        if (statuses != null && !statuses.isEmpty()) query.setParameter("statuses", statuses);
+
+        // Projeção escalar + fetch size: o driver lê em blocos via cursor e nada fica no contexto de persistência
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return query.getResultStream();
+    }
+}
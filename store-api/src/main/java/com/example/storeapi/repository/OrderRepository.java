@@ -2,18 +2,62 @@ package com.example.storeapi.repository;
 
 import com.example.storeapi.domain.Order;
 import com.example.storeapi.domain.OrderStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderExportRepository, OrderBulkStatusRepository {
     boolean existsByCustomerId(Long customerId);
 
-    @Query("select count(o) from Order o where o.customer.id = :customerId")
-    long countByCustomerId(@Param("customerId") Long customerId);
+    // Inicializa items + product das orders já carregadas no contexto de persistência
+    @Query("select distinct o from Order o left join fetch o.items i left join fetch i.product where o.id in :ids")
+    List<Order> fetchItemsByIdIn(@Param("ids") Collection<Long> ids);
 
-    @Query("select count(o) from Order o where o.customer.id = :customerId and o.status not in :closedStatuses")
-    long countOpenByCustomerId(@Param("customerId") Long customerId, @Param("closedStatuses") Collection<OrderStatus> closedStatuses);
+    @EntityGraph(attributePaths = {"customer", "items", "items.product"})
+    Optional<Order> findDetailedById(Long id);
+
+    // GET /orders/{id}?fields= sem items
+    @EntityGraph(attributePaths = "customer")
+    Optional<Order> findWithCustomerById(Long id);
+
+    // ETag do pedido: a resposta inclui nome do cliente e dos produtos, então as versões deles entram também
+    // (versões só crescem: a soma muda sempre que algum produto muda)
+    @Query("select concat(str(o.version), '.', str(c.version), '.', str(coalesce(sum(p.version), 0)), '.', str(count(i))) " +
+            "from Order o join o.customer c left join o.items i left join i.product p " +
+            "where o.id = :id group by o.id, o.version, c.version")
+    Optional<String> findETagById(@Param("id") Long id);
+
+    @Query("select o.status from Order o where o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+
+    // Status atual (id, status) sem carregar as entidades; usado para explicar o que o bulk não alterou
+    @Query("select o.id, o.status from Order o where o.id in :ids")
+    List<Object[]> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Número de linhas de pedidos sem item_count (id, count); pedidos sem itens não aparecem
+    @Query(value = "select order_id, count(*) from order_items where order_id in (:ids) group by order_id", nativeQuery = true)
+    List<Object[]> countItemsByOrderIdIn(@Param("ids") Collection<Long> ids);
+
+    // Início da próxima faixa do backfill de item_count, travando a linha de progresso até o fim da transação;
+    // vazio quando o backfill já terminou
+    @Query(value = "select next_id from order_item_count_backfill where next_id < last_id for update", nativeQuery = true)
+    Optional<Long> lockItemCountBackfill();
+
+    // Só as linhas ainda null: um pedido cujos itens foram gravados nesse meio-tempo já tem a contagem da aplicação
+    @Modifying
+    @Query(value = "update orders o set item_count = (select count(*) from order_items i where i.order_id = o.id) " +
+            "where o.id > :after and o.id <= :to and o.item_count is null", nativeQuery = true)
+    int backfillItemCount(@Param("after") long after, @Param("to") long to);
+
+    @Modifying
+    @Query(value = "update order_item_count_backfill set next_id = least(:to, last_id)", nativeQuery = true)
+    void advanceItemCountBackfill(@Param("to") long to);
 }
@@ -0,0 +1,50 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.domain.Order;
+import com.example.storeapi.domain.OrderStatus;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Filtros da listagem de pedidos como um único WHERE (só os critérios informados entram na query).
+// Os índices que os atendem estão em V14.
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {}
+
+    public static Specification<Order> filter(Long customerId, Collection<OrderStatus> statuses,
+                                              OffsetDateTime createdFrom, OffsetDateTime createdTo) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(4);
+            if (customerId != null) {
+                // customer.id é a própria FK: não gera join
+                predicates.add(cb.equal(root.get("customer").get("id"), customerId));
+            }
+            if (statuses != null && !statuses.isEmpty()) {
+                predicates.add(root.get("status").in(statuses));
+            }
+            if (createdFrom != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), createdFrom));
+            }
+            if (createdTo != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), createdTo));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Keyset (createdAt desc, id desc): (createdAt, id) < (:createdAt, :id). Criteria não tem comparação de tuplas;
+    // o "createdAt <= :createdAt" redundante vira condição de índice, senão o scan começaria do topo a cada página.
+    public static Specification<Order> before(OffsetDateTime createdAt, long id) {
+        return (root, query, cb) -> {
+            Path<OffsetDateTime> created = root.get("createdAt");
+            return cb.and(cb.lessThanOrEqualTo(created, createdAt),
+                    cb.or(cb.lessThan(created, createdAt), cb.lessThan(root.get("id"), id)));
+        };
+    }
+}
@@ -1,8 +1,54 @@
 package com.example.storeapi.repository;
 
 import com.example.storeapi.domain.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductSearchRepository {
     boolean existsByCategoryId(Long categoryId);
+
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findWithCategoryById(Long id);
+
+    // Versões que compõem o ETag do produto (a resposta inclui o nome da categoria)
+    @Query("select concat(str(p.version), '.', str(c.version)) from Product p join p.category c where p.id = :id")
+    Optional<String> findETagById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryByIdIn(Collection<Long> ids);
+
+    // Log de alterações lido pelo ProductCache de cada instância (V17). Só inserts: escritas concorrentes de
+    // produtos não disputam nenhuma linha
+    @Modifying
+    @Query(value = "insert into product_changes (product_id) values (:productId)", nativeQuery = true)
+    void recordChange(@Param("productId") Long productId);
+
+    // Sem product_id: as instâncias descartam todos os produtos (renomeação de categoria)
+    @Modifying
+    @Query(value = "insert into product_changes (product_id) values (null)", nativeQuery = true)
+    void recordFlush();
+
+    // Xid mais antigo ainda em andamento: toda transação com xid menor já terminou (as linhas dela, se confirmou,
+    // já estão visíveis); as em andamento têm xid maior ou igual
+    @Query(value = "select cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint)", nativeQuery = true)
+    long findSnapshotXmin();
+
+    // product_id das linhas gravadas por transações com xid >= fromTxid (null = descartar todos)
+    @Query(value = "select product_id from product_changes where txid >= :fromTxid order by txid limit :limit",
+            nativeQuery = true)
+    List<Long> findChangedProductIds(@Param("fromTxid") long fromTxid, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from product_changes where changed_at < clock_timestamp() - make_interval(secs => :retentionSeconds)",
+            nativeQuery = true)
+    int deleteChangesOlderThan(@Param("retentionSeconds") long retentionSeconds);
 }
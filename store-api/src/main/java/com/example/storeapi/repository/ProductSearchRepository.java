@@ -0,0 +1,30 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.dto.common.Fields;
+import com.example.storeapi.dto.product.ProductResponseDTO;
+
+import java.util.List;
+
+public interface ProductSearchRepository {
+
+    // TEXT: full-text em nome/descrição (ts_rank); FUZZY: trigramas no nome (word_similarity), tolera erros de digitação
+    enum Mode { TEXT, FUZZY }
+
+    final class Hit {
+        private final ProductResponseDTO product;
+        private final float score;
+
+        Hit(ProductResponseDTO product, float score) {
+            this.product = product;
+            this.score = score;
+        }
+
+        public ProductResponseDTO getProduct() { return product; }
+        public float getScore() { return score; }
+    }
+
+    // Produtos que casam com "q" no modo dado, maior score primeiro e depois id. afterScore/afterId (ambos ou nenhum)
+    // continuam a partir do último hit da página anterior; categoryId é opcional. Sem "categoryName" em fields a
+    // categoria não entra no SELECT e o nome volta null.
+    List<Hit> search(Mode mode, String q, Long categoryId, Float afterScore, Long afterId, int limit, Fields fields);
+}
@@ -0,0 +1,117 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.dto.common.Fields;
+import com.example.storeapi.dto.product.ProductResponseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    // Padrão do pg_trgm para similarity; o de word_similarity (0.6) recusa até uma troca de letras ("cadiera")
+    static final String DEFAULT_FUZZY_THRESHOLD = "0.3";
+
+    private static final int MAX_FUZZY_WORDS = 5;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final double fuzzyThreshold;
+
+    ProductSearchRepositoryImpl(@Value("${store.search.fuzzy-threshold:" + DEFAULT_FUZZY_THRESHOLD + "}") double fuzzyThreshold) {
+        this.fuzzyThreshold = fuzzyThreshold;
+    }
+
+    // Um único SELECT (produto + categoria + score) sobre o índice GIN do modo (V12). O score é real para o cursor
+    // ser exato; só os produtos que casam são pontuados, então o custo acompanha o número de matches, não o catálogo.
+    // FUZZY compara palavra a palavra (:w0, :w1, ...): todas precisam casar e o score soma as similaridades. A frase
+    // inteira contra o nome deixaria uma palavra certa ("gamer") compensar a errada e ranquearia mal.
+    // O join com categories só entra quando o nome da categoria é pedido; o id já está em products.
+    static String searchSql(Mode mode, int fuzzyWords, boolean byCategory, boolean after, boolean withCategoryName) {
+        StringBuilder score = new StringBuilder();
+        StringBuilder match = new StringBuilder();
+        if (mode == Mode.TEXT) {
+            score.append("ts_rank(p.search_vector, q.ts)");
+            match.append("p.search_vector @@ q.ts");
+        } else {
+            for (int i = 0; i < fuzzyWords; i++) {
+                score.append(i == 0 ? "" : " + ").append("word_similarity(:w").append(i).append(", p.name)");
+                match.append(i == 0 ? "" : " and ").append("cast(:w").append(i).append(" as text) <% p.name");
+            }
+        }
+        return "select * from (select p.id, p.name, p.description, p.price, p.status, p.category_id, " +
+                (withCategoryName ? "c.name" : "cast(null as text)") + " as category_name, p.created_at, " +
+                "cast(" + score + " as real) as score " +
+                "from " + (mode == Mode.TEXT ? "(select websearch_to_tsquery('portuguese', :q) as ts) q, " : "") +
+                "products p " + (withCategoryName ? "join categories c on c.id = p.category_id " : "") +
+                "where " + match + (byCategory ? " and p.category_id = :categoryId" : "") +
+                // offset 0 impede o Postgres de achatar a subquery e recalcular o word_similarity (caro) no filtro do cursor
+                (after && mode == Mode.FUZZY ? " offset 0" : "") + ") s " +
+                (after ? "where s.score < cast(:afterScore as real) " +
+                        "or (s.score = cast(:afterScore as real) and s.id > :afterId) " : "") +
+                "order by s.score desc, s.id limit :limit";
+    }
+
+    // Palavras da busca aproximada: só letras e dígitos (os trigramas ignoram o resto), no máximo MAX_FUZZY_WORDS
+    static List<String> fuzzyWords(String q) {
+        List<String> words = new ArrayList<>();
+        for (String w : q.split("[^\\p{L}\\p{N}]+")) {
+            if (!w.isEmpty() && words.size() < MAX_FUZZY_WORDS) {
+                words.add(w);
+            }
+        }
+        return words;
+    }
+
+    @Override
+    public List<Hit> search(Mode mode, String q, Long categoryId, Float afterScore, Long afterId, int limit, Fields fields) {
+        boolean after = afterScore != null;
+        List<String> words = List.of();
+        if (mode == Mode.FUZZY) {
+            words = fuzzyWords(q);
+            if (words.isEmpty()) {
+                return List.of();
+            }
+            // limiar do operador <% (usado pelo índice), só nesta transação
+            entityManager.createNativeQuery("select set_config('pg_trgm.word_similarity_threshold', :threshold, true)")
+                    .setParameter("threshold", String.valueOf(fuzzyThreshold))
+                    .getSingleResult();
+        }
+        Query query = entityManager.createNativeQuery(searchSql(mode, words.size(), categoryId != null, after,
+                        fields.has("categoryName")))
+                .setParameter("limit", limit);
+        if (mode == Mode.TEXT) query.setParameter("q", q);
+        for (int i = 0; i < words.size(); i++) query.setParameter("w" + i, words.get(i));
+        if (categoryId != null) query.setParameter("categoryId", categoryId);
+        if (after) query.setParameter("afterScore", afterScore).setParameter("afterId", afterId);
+
+        List<?> rows = query.getResultList();
+        List<Hit> hits = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] cols = (Object[]) row;
+            hits.add(new Hit(new ProductResponseDTO(((Number) cols[0]).longValue(), (String) cols[1], (String) cols[2],
+                    (BigDecimal) cols[3], (String) cols[4], ((Number) cols[5]).longValue(), (String) cols[6],
+                    toOffsetDateTime(cols[7])), ((Number) cols[8]).floatValue()));
+        }
+        return hits;
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Object value) {
+        if (value instanceof OffsetDateTime odt) {
+            return odt;
+        }
+        if (value instanceof Instant instant) {
+            return instant.atOffset(ZoneOffset.UTC);
+        }
+        return ((Timestamp) value).toInstant().atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.domain.Product;
+import com.example.storeapi.domain.ProductStatus;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Filtros da listagem de produtos como um único WHERE (só os critérios informados entram na query).
+// Os índices que os atendem estão em V13.
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {}
+
+    public static Specification<Product> filter(Long categoryId, ProductStatus status, BigDecimal minPrice,
+                                                BigDecimal maxPrice, OffsetDateTime createdAfter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(5);
+            if (categoryId != null) {
+                // category.id é a própria FK: não gera join
+                predicates.add(cb.equal(root.get("category").get("id"), categoryId));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            }
+            if (createdAfter != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), createdAfter));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Keyset do modo cursor
+    public static Specification<Product> idGreaterThan(long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+}
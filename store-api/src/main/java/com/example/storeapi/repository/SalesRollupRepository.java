@@ -0,0 +1,191 @@
+package com.example.storeapi.repository;
+
+import com.example.storeapi.domain.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Rollups diários de vendas (sales_daily*, ver V11) e a fila de deltas que os alimenta. Só SQL nativo,
+// sempre dentro da transação do chamador.
+@Repository
+public class SalesRollupRepository {
+
+    public enum Level { DAY, CATEGORY, PRODUCT }
+
+    public static final class Row {
+        private final LocalDate day;
+        private final Long key;
+        private final String name;
+        private final BigDecimal revenue;
+        private final long units;
+        private final long orders;
+
+        Row(LocalDate day, Long key, String name, BigDecimal revenue, long units, long orders) {
+            this.day = day;
+            this.key = key;
+            this.name = name;
+            this.revenue = revenue;
+            this.units = units;
+            this.orders = orders;
+        }
+
+        public LocalDate getDay() { return day; }
+        public Long getKey() { return key; }
+        public String getName() { return name; }
+        public BigDecimal getRevenue() { return revenue; }
+        public long getUnits() { return units; }
+        public long getOrders() { return orders; }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Insert em sales_deltas a partir de "source", um select com colunas (order_id, status, sign): para cada pedido,
+    // soma (+1) ou subtrai (-1) seus itens no status dado. Itens, produtos e created_at vêm do estado atual das tabelas.
+    // Compartilhado com o update de status em massa, que o usa como CTE sobre as linhas alteradas.
+    static String insertDeltasSql(String source) {
+        return "insert into sales_deltas (day, product_id, category_id, status, revenue, units, " +
+                "product_orders, category_orders, day_orders) " +
+                "select day, product_id, category_id, status, sign * revenue, sign * units, sign, " +
+                // cada pedido conta uma vez por categoria e uma vez no dia
+                "case when row_number() over (partition by order_id, status, category_id order by product_id) = 1 then sign else 0 end, " +
+                "case when row_number() over (partition by order_id, status order by product_id) = 1 then sign else 0 end " +
+                "from (select cast(o.created_at at time zone 'UTC' as date) as day, i.product_id, p.category_id, " +
+                "d.status, d.sign, o.id as order_id, sum(i.subtotal) as revenue, sum(i.quantity) as units " +
+                "from (" + source + ") d join orders o on o.id = d.order_id " +
+                "join order_items i on i.order_id = o.id join products p on p.id = i.product_id " +
+                "group by o.created_at, i.product_id, p.category_id, d.status, d.sign, o.id) x";
+    }
+
+    // Soma (sign = 1) ou subtrai (sign = -1) os pedidos no status em que estão agora.
+    // Faz flush antes: o estado pendente no contexto de persistência precisa estar no banco.
+    public void recordDeltas(Collection<Long> orderIds, int sign) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        entityManager.createNativeQuery(insertDeltasSql(
+                        "select id as order_id, status, cast(:sign as integer) as sign from orders where id in (:ids)"))
+                .setParameter("sign", sign)
+                .setParameter("ids", orderIds)
+                .executeUpdate();
+    }
+
+    // Consolida até "limit" deltas nas três tabelas num único statement. SKIP LOCKED: instâncias concorrentes
+    // consolidam lotes diferentes; deltas ainda não confirmados ficam para a próxima rodada.
+    public int foldDeltas(int limit) {
+        Object moved = entityManager.createNativeQuery(
+                        "with moved as (delete from sales_deltas where id in (" +
+                        "select id from sales_deltas order by id limit :limit for update skip locked) returning *), " +
+                        "d as (insert into sales_daily (day, status, revenue, units, orders) " +
+                        "select day, status, sum(revenue), sum(units), sum(day_orders) from moved " +
+                        "group by day, status order by day, status " +
+                        "on conflict (day, status) do update set " +
+                        "revenue = sales_daily.revenue + excluded.revenue, units = sales_daily.units + excluded.units, " +
+                        "orders = sales_daily.orders + excluded.orders), " +
+                        "c as (insert into sales_daily_category (day, category_id, status, revenue, units, orders) " +
+                        "select day, category_id, status, sum(revenue), sum(units), sum(category_orders) from moved " +
+                        "group by day, category_id, status order by day, category_id, status " +
+                        "on conflict (day, category_id, status) do update set " +
+                        "revenue = sales_daily_category.revenue + excluded.revenue, " +
+                        "units = sales_daily_category.units + excluded.units, " +
+                        "orders = sales_daily_category.orders + excluded.orders), " +
+                        "p as (insert into sales_daily_product (day, product_id, status, revenue, units, orders) " +
+                        "select day, product_id, status, sum(revenue), sum(units), sum(product_orders) from moved " +
+                        "group by day, product_id, status order by day, product_id, status " +
+                        "on conflict (day, product_id, status) do update set " +
+                        "revenue = sales_daily_product.revenue + excluded.revenue, " +
+                        "units = sales_daily_product.units + excluded.units, " +
+                        "orders = sales_daily_product.orders + excluded.orders) " +
+                        "select count(*) from moved")
+                .setParameter("limit", limit)
+                .getSingleResult();
+        return ((Number) moved).intValue();
+    }
+
+    // Advisory lock que separa a consolidação do recálculo; as escritas de pedidos não o usam
+    private static final String ROLLUP_LOCK = "hashtext('sales_rollups')";
+
+    // Para o fold: false enquanto um rebuild está em andamento (a rodada fica para depois). Vale até o fim da
+    // transação do chamador.
+    public boolean tryLockFold() {
+        return (Boolean) entityManager.createNativeQuery("select pg_try_advisory_xact_lock(" + ROLLUP_LOCK + ")")
+                .getSingleResult();
+    }
+
+    // Recalcula tudo a partir de orders sem bloquear as escritas de pedidos, que só inserem em sales_deltas.
+    // O advisory lock espera um fold em andamento e segura os próximos até o commit; os rollups não são tocados
+    // por mais ninguém. A agregação e o delete dos deltas vão num único statement, com um único snapshot: os
+    // deltas visíveis nele já estão refletidos em orders e saem da fila; os confirmados depois ficam e o fold
+    // os aplica sobre o resultado novo. Quem lê o relatório vê os rollups antigos até o commit.
+    public void rebuild() {
+        entityManager.createNativeQuery("select pg_advisory_xact_lock(" + ROLLUP_LOCK + ")").getSingleResult();
+        entityManager.createNativeQuery("delete from sales_daily").executeUpdate();
+        entityManager.createNativeQuery("delete from sales_daily_category").executeUpdate();
+        entityManager.createNativeQuery("delete from sales_daily_product").executeUpdate();
+        entityManager.createNativeQuery(
+                        "with seen as (delete from sales_deltas returning id), " +
+                        "d as (insert into sales_daily (day, status, revenue, units, orders) " +
+                        "select cast(o.created_at at time zone 'UTC' as date), o.status, sum(i.subtotal), sum(i.quantity), " +
+                        "count(distinct o.id) from orders o join order_items i on i.order_id = o.id group by 1, 2), " +
+                        "c as (insert into sales_daily_category (day, category_id, status, revenue, units, orders) " +
+                        "select cast(o.created_at at time zone 'UTC' as date), p.category_id, o.status, sum(i.subtotal), " +
+                        "sum(i.quantity), count(distinct o.id) from orders o join order_items i on i.order_id = o.id " +
+                        "join products p on p.id = i.product_id group by 1, 2, 3), " +
+                        "p as (insert into sales_daily_product (day, product_id, status, revenue, units, orders) " +
+                        "select cast(o.created_at at time zone 'UTC' as date), i.product_id, o.status, sum(i.subtotal), " +
+                        "sum(i.quantity), count(distinct o.id) from orders o join order_items i on i.order_id = o.id " +
+                        "group by 1, 2, 3) " +
+                        "select count(*) from seen")
+                .getSingleResult();
+    }
+
+    // Deltas gravados e ainda não consolidados nos rollups
+    public long pendingDeltas() {
+        return ((Number) entityManager.createNativeQuery("select count(*) from sales_deltas").getSingleResult()).longValue();
+    }
+
+    // Agregado de [from, to) nos status pedidos. DAY: uma linha por dia; CATEGORY/PRODUCT: por chave, maior receita
+    // primeiro, com o nome atual (null se a categoria/produto foi removido depois)
+    public List<Row> report(Level level, LocalDate from, LocalDate to, Collection<OrderStatus> statuses, int limit) {
+        String sql = switch (level) {
+            case DAY -> "select s.day, null, null, sum(s.revenue), sum(s.units), sum(s.orders) from sales_daily s " +
+                    "where s.day >= :from and s.day < :to and s.status in (:statuses) " +
+                    "group by s.day order by s.day limit :limit";
+            case CATEGORY -> "select null, s.category_id, min(c.name), sum(s.revenue), sum(s.units), sum(s.orders) " +
+                    "from sales_daily_category s left join categories c on c.id = s.category_id " +
+                    "where s.day >= :from and s.day < :to and s.status in (:statuses) " +
+                    "group by s.category_id order by sum(s.revenue) desc, s.category_id limit :limit";
+            case PRODUCT -> "select null, s.product_id, min(p.name), sum(s.revenue), sum(s.units), sum(s.orders) " +
+                    "from sales_daily_product s left join products p on p.id = s.product_id " +
+                    "where s.day >= :from and s.day < :to and s.status in (:statuses) " +
+                    "group by s.product_id order by sum(s.revenue) desc, s.product_id limit :limit";
+        };
+        List<?> rows = entityManager.createNativeQuery(sql)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("statuses", statuses.stream().map(Enum::name).toList())
+                .setParameter("limit", limit)
+                .getResultList();
+        List<Row> result = new ArrayList<>(rows.size());
+        for (Object r : rows) {
+            Object[] cols = (Object[]) r;
+            result.add(new Row(toLocalDate(cols[0]), cols[1] == null ? null : ((Number) cols[1]).longValue(), (String) cols[2],
+                    (BigDecimal) cols[3], ((Number) cols[4]).longValue(), ((Number) cols[5]).longValue()));
+        }
+        return result;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value == null || value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return ((java.sql.Date) value).toLocalDate();
+    }
+}
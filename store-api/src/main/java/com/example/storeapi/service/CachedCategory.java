@@ -0,0 +1,32 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.domain.Category;
+
+import java.time.OffsetDateTime;
+
+// Cópia imutável de uma categoria guardada no CategorySnapshot
+public final class CachedCategory {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final OffsetDateTime createdAt;
+    private final Long version;
+
+    public CachedCategory(Long id, String name, String description, OffsetDateTime createdAt, Long version) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.version = version;
+    }
+
+    public static CachedCategory of(Category c) {
+        return new CachedCategory(c.getId(), c.getName(), c.getDescription(), c.getCreatedAt(), c.getVersion());
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public String getDescription() { return description; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public Long getVersion() { return version; }
+}
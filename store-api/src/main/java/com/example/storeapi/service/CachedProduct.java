@@ -0,0 +1,53 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.domain.Product;
+import com.example.storeapi.domain.ProductStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// Cópia imutável de um produto (com o nome da categoria) guardada no ProductCache
+public final class CachedProduct {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final BigDecimal price;
+    private final ProductStatus status;
+    private final Long categoryId;
+    private final String categoryName;
+    private final OffsetDateTime createdAt;
+    private final Long version;
+    private final Long categoryVersion;
+
+    public CachedProduct(Long id, String name, String description, BigDecimal price, ProductStatus status,
+                         Long categoryId, String categoryName, OffsetDateTime createdAt,
+                         Long version, Long categoryVersion) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.status = status;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.createdAt = createdAt;
+        this.version = version;
+        this.categoryVersion = categoryVersion;
+    }
+
+    public static CachedProduct of(Product p) {
+        return new CachedProduct(p.getId(), p.getName(), p.getDescription(), p.getPrice(), p.getStatus(),
+                p.getCategory().getId(), p.getCategory().getName(), p.getCreatedAt(),
+                p.getVersion(), p.getCategory().getVersion());
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public String getDescription() { return description; }
+    public BigDecimal getPrice() { return price; }
+    public ProductStatus getStatus() { return status; }
+    public Long getCategoryId() { return categoryId; }
+    public String getCategoryName() { return categoryName; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public Long getVersion() { return version; }
+    public Long getCategoryVersion() { return categoryVersion; }
+}
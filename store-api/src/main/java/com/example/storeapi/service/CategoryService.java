@@ -1,6 +1,7 @@
 package com.example.storeapi.service;
 
 import com.example.storeapi.domain.Category;
+import com.example.storeapi.dto.common.CursorPageDTO;
 import com.example.storeapi.dto.category.CategoryCreateDTO;
 import com.example.storeapi.dto.category.CategoryPatchDTO;
 import com.example.storeapi.dto.category.CategoryResponseDTO;
@@ -8,19 +9,27 @@ import com.example.storeapi.dto.category.CategoryUpdateDTO;
 import com.example.storeapi.repository.CategoryRepository;
 import com.example.storeapi.repository.ProductRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final CategorySnapshot categorySnapshot;
 
-    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository,
+                           ProductCache productCache, CategorySnapshot categorySnapshot) {
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.categorySnapshot = categorySnapshot;
     }
 
     @Transactional
@@ -32,25 +41,50 @@ public class CategoryService {
         c.setName(dto.getName());
         c.setDescription(dto.getDescription());
         Category saved = categoryRepository.save(c);
+        catalogChanged();
         return toResponse(saved);
     }
 
+    // Sem ?sort=, do snapshot em memória (ordem de id), sem consulta. Ordenado, vai ao banco: a ordem de texto é a
+    // da collation do banco, que o Java não reproduz
     @Transactional(readOnly = true)
     public Page<CategoryResponseDTO> list(Pageable pageable) {
-        return categoryRepository.findAll(pageable).map(this::toResponse);
+        if (pageable.getSort().isSorted()) {
+            return categoryRepository.findAll(pageable).map(this::toResponse);
+        }
+        List<CachedCategory> all = categorySnapshot.all();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all.stream().map(this::toResponse).toList());
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to).stream().map(this::toResponse).toList(), pageable, all.size());
+    }
+
+    public CursorPageDTO<CategoryResponseDTO> listAfter(String after, int limit) {
+        Cursors.checkLimit(limit);
+        long afterId = after == null ? 0L : Cursors.decodeId(after);
+        List<CachedCategory> rows = categorySnapshot.all().stream()
+                .filter(c -> c.getId() > afterId)
+                .limit(limit + 1)
+                .toList();
+        return Cursors.page(rows, limit, e -> Cursors.encode(e.getId()), this::toResponse);
+    }
+
+    // ETag da versão no snapshot (If-None-Match)
+    public String etag(Long id) {
+        return ETags.of(categorySnapshot.require(id).getVersion());
     }
 
-    @Transactional(readOnly = true)
     public CategoryResponseDTO get(Long id) {
-        Category c = categoryRepository.findById(id)
-                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Category not found"));
-        return toResponse(c);
+        return toResponse(categorySnapshot.require(id));
     }
 
     @Transactional
-    public CategoryResponseDTO update(Long id, CategoryUpdateDTO dto) {
+    public CategoryResponseDTO update(Long id, CategoryUpdateDTO dto, String ifMatch) {
         Category c = categoryRepository.findById(id)
                 .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Category not found"));
+        ETags.requireMatch(ifMatch, ETags.of(c.getVersion()));
         categoryRepository.findByNameIgnoreCase(dto.getName()).ifPresent(existing -> {
             if (!existing.getId().equals(id)) {
                 throw new IllegalArgumentException("Category name already exists");
@@ -58,13 +92,16 @@ public class CategoryService {
         });
         c.setName(dto.getName());
         c.setDescription(dto.getDescription());
+        productCache.evictCategory(id);
+        catalogChanged();
         return toResponse(categoryRepository.save(c));
     }
 
     @Transactional
-    public CategoryResponseDTO patch(Long id, CategoryPatchDTO dto) {
+    public CategoryResponseDTO patch(Long id, CategoryPatchDTO dto, String ifMatch) {
         Category c = categoryRepository.findById(id)
                 .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Category not found"));
+        ETags.requireMatch(ifMatch, ETags.of(c.getVersion()));
 
         if (dto.getName() != null) {
             if (dto.getName().isBlank()) {
@@ -76,12 +113,14 @@ public class CategoryService {
                 }
             });
             c.setName(dto.getName());
+            productCache.evictCategory(id);
         }
 
         if (dto.getDescription() != null) {
             c.setDescription(dto.getDescription());
         }
 
+        catalogChanged();
         return toResponse(categoryRepository.save(c));
     }
 
@@ -96,9 +135,20 @@ public class CategoryService {
         }
 
         categoryRepository.deleteById(id);
+        catalogChanged();
+    }
+
+    // Na transação da escrita: o carimbo em catalog_versions avisa as outras instâncias; esta recarrega após o commit
+    private void catalogChanged() {
+        categoryRepository.bumpCatalogVersion();
+        categorySnapshot.reloadAfterCommit();
     }
 
     private CategoryResponseDTO toResponse(Category c) {
         return new CategoryResponseDTO(c.getId(), c.getName(), c.getDescription(), c.getCreatedAt());
     }
+
+    private CategoryResponseDTO toResponse(CachedCategory c) {
+        return new CategoryResponseDTO(c.getId(), c.getName(), c.getDescription(), c.getCreatedAt());
+    }
 }
@@ -0,0 +1,134 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.repository.CategoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+// Todas as categorias em memória (são poucas e quase não mudam): leituras de categorias e a validação/nome da
+// categoria dos produtos não vão ao banco. Cada escrita de categoria incrementa catalog_versions na própria
+// transação; esta instância recarrega após o commit e as demais quando check() vê a versão mudar, então outras
+// instâncias ficam atrás das escritas por até um check-interval.
+@Component
+public class CategorySnapshot {
+
+    private static final Logger LOG = Logger.getLogger(CategorySnapshot.class.getName());
+
+    private final CategoryRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    public CategorySnapshot(CategoryRepository repository, PlatformTransactionManager transactionManager,
+                            MeterRegistry registry) {
+        this.repository = repository;
+        // Transação própria e não readOnly (primário): a carga pode acontecer dentro de uma transação de leitura
+        // (réplica) ou em afterCommit, quando a transação da escrita já não aceita comandos
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("store.cache.categories.size", this, s -> s.sizeIfLoaded())
+                .description("Categories held in the in-memory snapshot")
+                .register(registry);
+    }
+
+    public CachedCategory get(Long id) {
+        return snapshot().byId.get(id);
+    }
+
+    public CachedCategory require(Long id) {
+        CachedCategory category = get(id);
+        if (category == null) {
+            throw new jakarta.persistence.EntityNotFoundException("Category not found");
+        }
+        return category;
+    }
+
+    // Ordenadas por id
+    public List<CachedCategory> all() {
+        return snapshot().categories;
+    }
+
+    // Chamado pelas escritas de categoria, na transação que incrementou catalog_versions
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadQuietly();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reloadQuietly();
+            }
+        });
+    }
+
+    // Só um SELECT de uma linha quando nada mudou; também faz a primeira carga logo após a subida
+    @Scheduled(fixedDelayString = "${store.cache.categories.check-interval:PT5S}")
+    public void check() {
+        try {
+            Snapshot snapshot = current.get();
+            long version = transactionTemplate.execute(status -> repository.findCatalogVersion());
+            if (snapshot == null || snapshot.version != version) {
+                reload();
+            }
+        } catch (RuntimeException ex) {
+            LOG.warning("Category snapshot check failed: " + ex.getMessage());
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : reload();
+    }
+
+    // A versão é lida antes das linhas: uma escrita que entre entre as duas leituras deixa o snapshot com dados
+    // mais novos que a versão, e o próximo check() recarrega. Nunca volta para uma versão anterior (uma carga
+    // agendada que termine depois da carga pós-commit não desfaz a escrita local).
+    private Snapshot reload() {
+        Snapshot loaded = transactionTemplate.execute(status -> new Snapshot(repository.findCatalogVersion(),
+                repository.findAll(Sort.by("id")).stream().map(CachedCategory::of).toList()));
+        return current.accumulateAndGet(loaded, (cur, next) -> cur == null || next.version >= cur.version ? next : cur);
+    }
+
+    // Se falhar, fica o snapshot anterior até o próximo check()
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException ex) {
+            LOG.warning("Category snapshot reload failed: " + ex.getMessage());
+        }
+    }
+
+    private double sizeIfLoaded() {
+        Snapshot snapshot = current.get();
+        return snapshot == null ? 0 : snapshot.categories.size();
+    }
+
+    private static final class Snapshot {
+        final long version;
+        final List<CachedCategory> categories;
+        final Map<Long, CachedCategory> byId;
+
+        Snapshot(long version, List<CachedCategory> categories) {
+            this.version = version;
+            this.categories = categories;
+            Map<Long, CachedCategory> byId = new HashMap<>();
+            for (CachedCategory c : categories) {
+                byId.put(c.getId(), c);
+            }
+            this.byId = Map.copyOf(byId);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.dto.common.CursorPageDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Cursores opacos para paginação keyset: partes separadas por '|' e codificadas em Base64 URL-safe
+final class Cursors {
+
+    static final int MAX_LIMIT = 100;
+
+    private Cursors() {}
+
+    static String encode(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) raw.append('|');
+            raw.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decode(String cursor, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] parts = raw.split("\\|", -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+
+    static long decodeId(String cursor) {
+        try {
+            return Long.parseLong(decode(cursor, 1)[0]);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    // rows deve ter sido buscado com limit + 1 para saber se existe próxima página
+    static <E, D> CursorPageDTO<D> page(List<E> rows, int limit, Function<E, String> cursorOf, Function<E, D> mapper) {
+        boolean hasNext = rows.size() > limit;
+        List<E> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPageDTO<>(content.stream().map(mapper).toList(), nextCursor);
+    }
+}
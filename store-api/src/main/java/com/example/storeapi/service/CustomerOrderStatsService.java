@@ -0,0 +1,105 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.domain.Order;
+import com.example.storeapi.domain.OrderStatus;
+import com.example.storeapi.repository.CustomerOrderStatsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+// Mantém customer_order_stats. Deve ser chamado dentro da transação que grava o pedido.
+@Service
+public class CustomerOrderStatsService {
+
+    private static final Logger LOG = Logger.getLogger(CustomerOrderStatsService.class.getName());
+
+    private final CustomerOrderStatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildBatchSize;
+
+    public CustomerOrderStatsService(CustomerOrderStatsRepository statsRepository, TransactionTemplate transactionTemplate,
+                                     @Value("${store.stats.customer-orders.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        this.statsRepository = statsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    public void orderAdded(Order order) {
+        statsRepository.applyDelta(order.getCustomer().getId(), 1, open(order.getStatus()), value(order.getStatus(), order.getTotal()));
+    }
+
+    public void orderRemoved(Order order) {
+        statsRepository.applyDelta(order.getCustomer().getId(), -1, -open(order.getStatus()), value(order.getStatus(), order.getTotal()).negate());
+    }
+
+    // Um upsert por cliente, não por pedido (usado na ingestão em lote)
+    public void ordersAdded(Collection<Order> orders) {
+        Map<Long, long[]> counts = new HashMap<>();
+        Map<Long, BigDecimal> values = new HashMap<>();
+        for (Order o : orders) {
+            Long customerId = o.getCustomer().getId();
+            long[] c = counts.computeIfAbsent(customerId, k -> new long[2]);
+            c[0]++;
+            c[1] += open(o.getStatus());
+            values.merge(customerId, value(o.getStatus(), o.getTotal()), BigDecimal::add);
+        }
+        counts.forEach((customerId, c) -> statsRepository.applyDelta(customerId, c[0], c[1], values.get(customerId)));
+    }
+
+    public void orderChanged(Long oldCustomerId, OrderStatus oldStatus, BigDecimal oldTotal, Order order) {
+        Long newCustomerId = order.getCustomer().getId();
+        if (!oldCustomerId.equals(newCustomerId)) {
+            statsRepository.applyDelta(oldCustomerId, -1, -open(oldStatus), value(oldStatus, oldTotal).negate());
+            orderAdded(order);
+            return;
+        }
+        long openDelta = open(order.getStatus()) - open(oldStatus);
+        BigDecimal valueDelta = value(order.getStatus(), order.getTotal()).subtract(value(oldStatus, oldTotal));
+        if (openDelta != 0 || valueDelta.signum() != 0) {
+            statsRepository.applyDelta(newCustomerId, 0, openDelta, valueDelta);
+        }
+    }
+
+    // Recalcula os contadores a partir de orders, em faixas de rebuild-batch-size clientes, cada uma na sua transação.
+    // Só as linhas da faixa ficam travadas: uma escrita que já aplicou seu delta confirma antes do lock (e o pedido
+    // entra na agregação); as que chegam depois esperam e aplicam o delta sobre o valor recalculado.
+    @Scheduled(cron = "${store.stats.customer-orders.rebuild-cron:-}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        long after = 0;
+        int customers = 0;
+        while (true) {
+            long from = after;
+            List<Long> locked = transactionTemplate.execute(status -> {
+                statsRepository.insertMissingAfter(from, rebuildBatchSize);
+                List<Long> ids = statsRepository.lockAfter(from, rebuildBatchSize);
+                if (!ids.isEmpty()) {
+                    statsRepository.rebuildFromOrders(ids);
+                }
+                return ids;
+            });
+            if (locked == null || locked.isEmpty()) {
+                break;
+            }
+            customers += locked.size();
+            after = locked.get(locked.size() - 1);
+        }
+        LOG.info("Customer order stats rebuilt in " + (System.nanoTime() - started) / 1_000_000 + " ms, " + customers + " customers");
+    }
+
+    private static long open(OrderStatus status) {
+        return status.isClosed() ? 0 : 1;
+    }
+
+    private static BigDecimal value(OrderStatus status, BigDecimal total) {
+        return status == OrderStatus.CANCELED ? BigDecimal.ZERO : total;
+    }
+}
@@ -1,28 +1,34 @@
 package com.example.storeapi.service;
 
 import com.example.storeapi.domain.Customer;
-import com.example.storeapi.domain.OrderStatus;
+import com.example.storeapi.dto.common.CursorPageDTO;
 import com.example.storeapi.dto.customer.CustomerCreateDTO;
 import com.example.storeapi.dto.customer.CustomerOrderCountDTO;
 import com.example.storeapi.dto.customer.CustomerPatchDTO;
 import com.example.storeapi.dto.customer.CustomerResponseDTO;
 import com.example.storeapi.dto.customer.CustomerUpdateDTO;
+import com.example.storeapi.repository.CustomerOrderStatsRepository;
 import com.example.storeapi.repository.CustomerRepository;
 import com.example.storeapi.repository.OrderRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
     private final OrderRepository orderRepository;
+    private final CustomerOrderStatsRepository statsRepository;
 
-    public CustomerService(CustomerRepository customerRepository, OrderRepository orderRepository) {
+    public CustomerService(CustomerRepository customerRepository, OrderRepository orderRepository, CustomerOrderStatsRepository statsRepository) {
         this.customerRepository = customerRepository;
         this.orderRepository = orderRepository;
+        this.statsRepository = statsRepository;
     }
 
     @Transactional
@@ -42,6 +48,22 @@ public class CustomerService {
         return customerRepository.findAll(pageable).map(this::toResponse);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CustomerResponseDTO> listAfter(String after, int limit) {
+        Cursors.checkLimit(limit);
+        long afterId = after == null ? 0L : Cursors.decodeId(after);
+        List<Customer> rows = customerRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        return Cursors.page(rows, limit, e -> Cursors.encode(e.getId()), this::toResponse);
+    }
+
+    // ETag sem carregar a entidade (If-None-Match)
+    @Transactional(readOnly = true)
+    public String etag(Long id) {
+        return customerRepository.findVersionById(id)
+                .map(ETags::of)
+                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Customer not found"));
+    }
+
     @Transactional(readOnly = true)
     public CustomerResponseDTO get(Long id) {
         Customer c = customerRepository.findById(id)
@@ -51,19 +73,22 @@ public class CustomerService {
 
     @Transactional(readOnly = true)
     public CustomerOrderCountDTO orderCounts(Long customerId) {
-        if (!customerRepository.existsById(customerId)) {
-            throw new jakarta.persistence.EntityNotFoundException("Customer not found");
-        }
-
-        long total = orderRepository.countByCustomerId(customerId);
-        long open = orderRepository.countOpenByCustomerId(customerId, java.util.List.of(OrderStatus.DELIVERED, OrderStatus.CANCELED));
-        return new CustomerOrderCountDTO(total, open);
+        // Caso comum: uma leitura por PK em customer_order_stats (mantida pelo OrderService)
+        return statsRepository.findById(customerId)
+                .map(s -> new CustomerOrderCountDTO(s.getTotalOrders(), s.getOpenOrders(), s.getLifetimeValue()))
+                .orElseGet(() -> {
+                    if (!customerRepository.existsById(customerId)) {
+                        throw new jakarta.persistence.EntityNotFoundException("Customer not found");
+                    }
+                    return new CustomerOrderCountDTO(0, 0, java.math.BigDecimal.ZERO);
+                });
     }
 
     @Transactional
-    public CustomerResponseDTO update(Long id, CustomerUpdateDTO dto) {
+    public CustomerResponseDTO update(Long id, CustomerUpdateDTO dto, String ifMatch) {
         Customer c = customerRepository.findById(id)
                 .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Customer not found"));
+        ETags.requireMatch(ifMatch, ETags.of(c.getVersion()));
         customerRepository.findByEmailIgnoreCase(dto.getEmail()).ifPresent(existing -> {
             if (!existing.getId().equals(id)) {
                 throw new IllegalArgumentException("Email already in use");
@@ -76,9 +101,10 @@ public class CustomerService {
     }
 
     @Transactional
-    public CustomerResponseDTO patch(Long id, CustomerPatchDTO dto) {
+    public CustomerResponseDTO patch(Long id, CustomerPatchDTO dto, String ifMatch) {
         Customer c = customerRepository.findById(id)
                 .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Customer not found"));
+        ETags.requireMatch(ifMatch, ETags.of(c.getVersion()));
 
         if (dto.getName() != null) {
             if (dto.getName().isBlank()) {
@@ -0,0 +1,42 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.exception.PreconditionFailedException;
+
+// ETags fortes a partir das colunas @Version ("3" ou "3.7" quando a resposta inclui outras entidades)
+final class ETags {
+
+    private ETags() {}
+
+    static String of(Object... versions) {
+        StringBuilder tag = new StringBuilder("\"");
+        for (int i = 0; i < versions.length; i++) {
+            if (i > 0) tag.append('.');
+            tag.append(versions[i]);
+        }
+        return tag.append('"').toString();
+    }
+
+    static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    // If-Match: ausente = sem pré-condição; "*" ou qualquer ETag da lista igual ao atual (comparação forte).
+    // O sufixo de representação (ex.: "3-cbor", ver RepresentationETags) não conta: é o mesmo estado do recurso.
+    static void requireMatch(String ifMatch, String current) {
+        if (ifMatch == null) {
+            return;
+        }
+        for (String candidate : ifMatch.split(",")) {
+            String tag = withoutRepresentation(candidate.trim());
+            if (tag.equals("*") || tag.equals(current)) {
+                return;
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match current ETag " + current);
+    }
+
+    private static String withoutRepresentation(String tag) {
+        int dash = tag.indexOf('-');
+        return dash > 0 && tag.endsWith("\"") ? tag.substring(0, dash) + "\"" : tag;
+    }
+}
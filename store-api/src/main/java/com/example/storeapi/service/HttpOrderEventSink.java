@@ -0,0 +1,49 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.dto.order.OrderEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// POST de cada evento (JSON) em store.outbox.http.url; qualquer resposta fora de 2xx é falha de entrega
+@Component
+@ConditionalOnProperty(name = "store.outbox.sink", havingValue = "http")
+public class HttpOrderEventSink implements OrderEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    public HttpOrderEventSink(ObjectMapper objectMapper,
+                              @Value("${store.outbox.http.url}") URI url,
+                              @Value("${store.outbox.http.timeout:5s}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void publish(OrderEventDTO event) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                // permite ao receptor descartar reentregas
+                .header("X-Event-Id", String.valueOf(event.getId()))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(event)))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("HTTP " + response.statusCode() + " from " + url);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.repository.IdempotencyKeyRepository;
+import com.example.storeapi.repository.IdempotencyKeyRepository.StoredResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+// Idempotency-Key: a primeira requisição de cada (scope, key) executa a ação; retries recebem a resposta gravada.
+// - Em memória: requisições concorrentes na mesma instância esperam o future da primeira (sem ir ao banco)
+// - idempotency_keys: a chave é reservada e a resposta gravada na mesma transação da ação, então entre
+//   instâncias o insert concorrente espera o commit e passa a ver a resposta pronta
+@Service
+public class IdempotencyService {
+
+    private static final Logger LOG = Logger.getLogger(IdempotencyService.class.getName());
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final class InFlight {
+        private final String requestHash;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final StoreMetrics metrics;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyKeyRepository repository, TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper, StoreMetrics metrics,
+                              @Value("${store.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${store.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+    }
+
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        String slot = scope + '\n' + key;
+
+        InFlight mine = new InFlight(requestHash);
+        InFlight running = inFlight.putIfAbsent(slot, mine);
+        if (running != null) {
+            requireSameRequest(running.requestHash, requestHash);
+            metrics.idempotentReplay("in-flight");
+            return responseType.cast(await(running));
+        }
+        try {
+            T result = transactionTemplate.execute(status -> executeOnce(scope, key, requestHash, responseType, action));
+            mine.result.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            mine.result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(slot, mine);
+        }
+    }
+
+    @Scheduled(cron = "${store.idempotency.purge-cron:0 */15 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = repository.deleteExpired();
+        if (removed > 0) {
+            LOG.info("Idempotency keys purged: " + removed);
+        }
+    }
+
+    private <T> T executeOnce(String scope, String key, String requestHash, Class<T> responseType, Supplier<T> action) {
+        Optional<StoredResponse> stored = repository.findActive(scope, key);
+        if (stored.isEmpty() && repository.claim(scope, key, requestHash, OffsetDateTime.now().plus(ttl))) {
+            T result = action.get();
+            repository.complete(scope, key, toJson(result));
+            return result;
+        }
+        // Concluída antes (aqui ou em outra instância): responde com o resultado gravado, sem executar a ação
+        StoredResponse response = stored.or(() -> repository.findActive(scope, key))
+                .orElseThrow(() -> new IllegalStateException("Request with this Idempotency-Key is still in progress"));
+        requireSameRequest(response.getRequestHash(), requestHash);
+        metrics.idempotentReplay("store");
+        return fromJson(response.getResponseBody(), responseType);
+    }
+
+    private Object await(InFlight running) {
+        try {
+            return running.result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // Mesmo erro da primeira requisição (ex.: 404 de produto): a ação não é repetida
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private static void requireSameRequest(String expectedHash, String requestHash) {
+        if (!expectedHash.equals(requestHash)) {
+            throw new IllegalStateException("Idempotency-Key was already used with a different request body");
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            throw new IllegalStateException("Could not hash request", ex);
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not store idempotent response", ex);
+        }
+    }
+
+    private <T> T fromJson(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body.getBytes(StandardCharsets.UTF_8), type);
+        } catch (java.io.IOException ex) {
+            throw new IllegalStateException("Could not read stored idempotent response", ex);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.dto.order.OrderEventDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Publica como evento do Spring: qualquer @EventListener(OrderEventDTO) na aplicação recebe, de forma síncrona
+// na thread do dispatcher (uma exceção do listener conta como falha de entrega)
+@Component
+@ConditionalOnProperty(name = "store.outbox.sink", havingValue = "in-process", matchIfMissing = true)
+public class InProcessOrderEventSink implements OrderEventSink {
+
+    private final ApplicationEventPublisher publisher;
+
+    public InProcessOrderEventSink(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void publish(OrderEventDTO event) {
+        publisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.dto.order.OrderEventDTO;
+import com.example.storeapi.repository.OrderEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+// Publica os eventos de order_events no OrderEventSink configurado, em lotes, fora do caminho das requisições.
+// Cada lote: reserva com lease numa transação curta (FOR UPDATE SKIP LOCKED só durante o UPDATE), publica sem
+// transação nem locks abertos (o sink pode levar segundos por evento) e marca publicados/falhos numa segunda
+// transação curta. Se a instância cair no meio, o lote volta à fila quando o lease vence (at-least-once).
+@Component
+@ConditionalOnProperty(name = "store.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderEventDispatcher {
+
+    private static final Logger LOG = Logger.getLogger(OrderEventDispatcher.class.getName());
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OrderEventRepository repository;
+    private final OrderEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Duration retention;
+    private final Duration lease;
+
+    private final Counter published;
+    private final Counter failures;
+    private final Timer deliveryLag;
+    private volatile double pending;
+    private volatile double lagSeconds;
+
+    public OrderEventDispatcher(OrderEventRepository repository, OrderEventSink sink,
+                                TransactionTemplate transactionTemplate, MeterRegistry registry,
+                                @Value("${store.outbox.batch-size:100}") int batchSize,
+                                @Value("${store.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+                                @Value("${store.outbox.retry-backoff:1s}") Duration retryBackoff,
+                                @Value("${store.outbox.max-retry-backoff:5m}") Duration maxRetryBackoff,
+                                @Value("${store.outbox.retention:7d}") Duration retention,
+                                @Value("${store.outbox.lease:2m}") Duration lease) {
+        this.repository = repository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.retention = retention;
+        this.lease = lease;
+
+        this.published = Counter.builder("store.outbox.published")
+                .description("Order events delivered to the sink")
+                .register(registry);
+        this.failures = Counter.builder("store.outbox.failures")
+                .description("Order event delivery attempts that failed and were rescheduled")
+                .register(registry);
+        this.deliveryLag = Timer.builder("store.outbox.delivery.lag")
+                .description("Time from the order write to the event delivery")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("store.outbox.pending", this, d -> d.pending)
+                .description("Order events not yet delivered")
+                .register(registry);
+        Gauge.builder("store.outbox.lag", this, d -> d.lagSeconds)
+                .description("Age of the oldest undelivered order event")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    // Esvazia a fila em lotes (até maxBatchesPerRun por execução, para não monopolizar o scheduler)
+    @Scheduled(fixedDelayString = "${store.outbox.poll-interval:PT1S}")
+    public void dispatch() {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int claimed = dispatchBatch();
+                if (claimed < batchSize) {
+                    break;
+                }
+            }
+            double[] backlog = transactionTemplate.execute(status -> repository.backlog());
+            pending = backlog[0];
+            lagSeconds = backlog[1];
+        } catch (RuntimeException ex) {
+            // banco indisponível etc.: tenta de novo no próximo ciclo
+            LOG.warning("Order event dispatch failed: " + ex.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${store.outbox.purge-cron:0 30 3 * * *}")
+    public void purgePublished() {
+        Integer removed = transactionTemplate.execute(status ->
+                repository.deletePublishedBefore(OffsetDateTime.now().minus(retention)));
+        if (removed != null && removed > 0) {
+            LOG.info("Published order events purged: " + removed);
+        }
+    }
+
+    private int dispatchBatch() {
+        List<OrderEventDTO> events = transactionTemplate.execute(status -> repository.claimBatch(batchSize, lease.toMillis()));
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+        // Só publica enquanto resta metade do lease: o que sobrar é devolvido à fila em vez de correr o risco de
+        // o lease vencer no meio e outro dispatcher enviar o mesmo evento
+        Instant stopAt = Instant.now().plus(lease.dividedBy(2));
+        List<Long> delivered = new ArrayList<>(events.size());
+        List<Failure> failed = new ArrayList<>();
+        List<Long> skipped = new ArrayList<>();
+        for (OrderEventDTO event : events) {
+            if (Instant.now().isAfter(stopAt)) {
+                skipped.add(event.getId());
+                continue;
+            }
+            try {
+                sink.publish(event);
+                delivered.add(event.getId());
+                deliveryLag.record(Duration.between(event.getCreatedAt(), OffsetDateTime.now()));
+            } catch (Exception ex) {
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                long retryIn = backoff(event.getAttempts());
+                failed.add(new Failure(event.getId(), truncate(String.valueOf(ex)), retryIn));
+                LOG.warning("Order event " + event.getId() + " (" + event.getType() + ", order " + event.getOrderId()
+                        + ") delivery failed, attempt " + (event.getAttempts() + 1) + ", retry in " + retryIn + " ms: " + ex);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.markPublished(delivered);
+            for (Failure failure : failed) {
+                repository.markFailed(failure.id, failure.error, failure.retryIn);
+            }
+            repository.release(skipped);
+        });
+        published.increment(delivered.size());
+        failures.increment(failed.size());
+        return events.size();
+    }
+
+    // Exponencial a partir de retryBackoff, limitado a maxRetryBackoff
+    private long backoff(int attempts) {
+        long base = retryBackoff.toMillis();
+        long max = maxRetryBackoff.toMillis();
+        return attempts >= 20 ? max : Math.min(max, base << attempts);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static final class Failure {
+        final Long id;
+        final String error;
+        final long retryIn;
+
+        Failure(Long id, String error, long retryIn) {
+            this.id = id;
+            this.error = error;
+            this.retryIn = retryIn;
+        }
+    }
+}
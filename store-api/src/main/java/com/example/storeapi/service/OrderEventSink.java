@@ -0,0 +1,9 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.dto.order.OrderEventDTO;
+
+// Destino dos eventos do outbox (store.outbox.sink: in-process ou http). Lançar exceção = falha de entrega:
+// o evento volta à fila com backoff e os seguintes do mesmo pedido esperam por ele.
+public interface OrderEventSink {
+    void publish(OrderEventDTO event) throws Exception;
+}
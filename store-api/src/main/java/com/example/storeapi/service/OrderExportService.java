@@ -0,0 +1,108 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.domain.OrderStatus;
+import com.example.storeapi.dto.order.OrderExportRowDTO;
+import com.example.storeapi.dto.order.OrderItemResponseDTO;
+import com.example.storeapi.dto.order.OrderResponseDTO;
+import com.example.storeapi.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class OrderExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String CSV_HEADER =
+            "order_id,created_at,status,customer_id,customer_name,total,product_id,product_name,quantity,unit_price,subtotal";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    public OrderExportService(OrderRepository orderRepository, ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Escreve direto no output stream conforme as linhas chegam do cursor; o heap não cresce com o volume
+    @Transactional(readOnly = true)
+    public void export(Format format, OffsetDateTime from, OffsetDateTime to, Collection<OrderStatus> statuses,
+                       OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<OrderExportRowDTO> rows = orderRepository.streamExportRows(from, to, statuses)) {
+            if (format == Format.CSV) {
+                writeCsv(rows.iterator(), writer);
+            } else {
+                writeNdjson(rows.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<OrderExportRowDTO> rows, Writer writer) throws IOException {
+        OrderResponseDTO current = null;
+        while (rows.hasNext()) {
+            OrderExportRowDTO row = rows.next();
+            if (current == null || !current.getId().equals(row.getOrderId())) {
+                if (current != null) {
+                    writeJsonLine(current, writer);
+                }
+                current = new OrderResponseDTO(row.getOrderId(), row.getCustomerId(), row.getCustomerName(),
+                        row.getTotal(), row.getStatus().name(), row.getCreatedAt(), 0, new ArrayList<>());
+            }
+            current.getItems().add(new OrderItemResponseDTO(row.getProductId(), row.getProductName(),
+                    row.getQuantity(), row.getUnitPrice(), row.getSubtotal()));
+        }
+        if (current != null) {
+            writeJsonLine(current, writer);
+        }
+    }
+
+    private void writeJsonLine(OrderResponseDTO order, Writer writer) throws IOException {
+        order.setItemCount(order.getItems().size());
+        writer.write(objectMapper.writeValueAsString(order));
+        writer.write('\n');
+    }
+
+    private void writeCsv(Iterator<OrderExportRowDTO> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            OrderExportRowDTO row = rows.next();
+            List<Object> values = List.of(
+                    row.getOrderId(), row.getCreatedAt(), row.getStatus().name(), row.getCustomerId(),
+                    csvText(row.getCustomerName()), row.getTotal().toPlainString(), row.getProductId(),
+                    csvText(row.getProductName()), row.getQuantity(), row.getUnitPrice().toPlainString(),
+                    row.getSubtotal().toPlainString());
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) writer.write(',');
+                writer.write(String.valueOf(values.get(i)));
+            }
+            writer.write('\n');
+        }
+    }
+
+    private static String csvText(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
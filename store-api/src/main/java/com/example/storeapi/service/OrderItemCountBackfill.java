@@ -0,0 +1,60 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.logging.Logger;
+
+// Preenche orders.item_count dos pedidos anteriores à V15, fora da migração: faixas de batch-size ids, cada uma na
+// sua transação junto com o avanço de order_item_count_backfill. Só as linhas da faixa ficam travadas, por pouco
+// tempo, e um restart continua de onde parou. Com várias instâncias, a linha de progresso travada serializa as faixas.
+// Terminado o backfill, cada execução é um SELECT que não acha nada.
+@Service
+public class OrderItemCountBackfill {
+
+    private static final Logger LOG = Logger.getLogger(OrderItemCountBackfill.class.getName());
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OrderItemCountBackfill(OrderRepository orderRepository, TransactionTemplate transactionTemplate,
+                                  @Value("${store.orders.item-count-backfill.batch-size:5000}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    // Uma falha no meio para a execução; a próxima recomeça da última faixa confirmada
+    @Scheduled(fixedDelayString = "${store.orders.item-count-backfill.interval:PT1M}")
+    public void run() {
+        long started = System.nanoTime();
+        int batches = 0;
+        long orders = 0;
+        while (true) {
+            Integer updated = transactionTemplate.execute(status -> {
+                Optional<Long> next = orderRepository.lockItemCountBackfill();
+                if (next.isEmpty()) {
+                    return null;
+                }
+                long to = next.get() + batchSize;
+                int n = orderRepository.backfillItemCount(next.get(), to);
+                orderRepository.advanceItemCountBackfill(to);
+                return n;
+            });
+            if (updated == null) {
+                break;
+            }
+            batches++;
+            orders += updated;
+        }
+        if (batches > 0) {
+            LOG.info("Order item_count backfilled in " + (System.nanoTime() - started) / 1_000_000 + " ms, "
+                    + orders + " orders in " + batches + " batches");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.domain.Order;
+import com.example.storeapi.domain.OrderEventType;
+import com.example.storeapi.domain.OrderStatus;
+import com.example.storeapi.repository.OrderEventRepository;
+import com.example.storeapi.repository.OrderEventRepository.NewEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Grava eventos de pedido em order_events na transação de quem escreveu o pedido (MANDATORY): o evento existe
+// se e somente se a escrita foi confirmada. A entrega fica com o OrderEventDispatcher, fora da requisição.
+// O update de status em massa grava os seus direto no SQL (OrderBulkStatusRepositoryImpl), com o mesmo payload.
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderOutbox {
+
+    private final OrderEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public OrderOutbox(OrderEventRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void created(Order order) {
+        append(List.of(event(OrderEventType.ORDER_CREATED, order, null)));
+    }
+
+    public void createdAll(Collection<Order> orders) {
+        List<NewEvent> events = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            events.add(event(OrderEventType.ORDER_CREATED, order, null));
+        }
+        append(events);
+    }
+
+    public void updated(Order order, OrderStatus previousStatus) {
+        append(List.of(event(OrderEventType.ORDER_UPDATED, order, previousStatus)));
+    }
+
+    public void statusChanged(Order order, OrderStatus previousStatus) {
+        append(List.of(event(OrderEventType.ORDER_STATUS_CHANGED, order, previousStatus)));
+    }
+
+    public void deleted(Order order) {
+        append(List.of(event(OrderEventType.ORDER_DELETED, order, order.getStatus())));
+    }
+
+    private void append(List<NewEvent> events) {
+        if (!events.isEmpty()) {
+            repository.append(events);
+        }
+    }
+
+    private NewEvent event(OrderEventType type, Order order, OrderStatus previousStatus) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("customerId", order.getCustomer().getId());
+        payload.put("status", order.getStatus());
+        payload.put("previousStatus", previousStatus);
+        payload.put("total", order.getTotal());
+        try {
+            return new NewEvent(order.getId(), type, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize order event", ex);
+        }
+    }
+}
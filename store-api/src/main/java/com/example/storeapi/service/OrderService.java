@@ -5,24 +5,48 @@ import com.example.storeapi.domain.Order;
 import com.example.storeapi.domain.OrderItem;
 import com.example.storeapi.domain.OrderStatus;
 import com.example.storeapi.domain.Product;
+import com.example.storeapi.dto.common.CursorPageDTO;
+import com.example.storeapi.dto.common.Fields;
+import com.example.storeapi.dto.order.OrderBatchResultDTO;
+import com.example.storeapi.dto.order.OrderBulkStatusResultDTO;
 import com.example.storeapi.dto.order.OrderCreateDTO;
+import com.example.storeapi.dto.order.OrderFilterDTO;
 import com.example.storeapi.dto.order.OrderItemCreateDTO;
 import com.example.storeapi.dto.order.OrderItemResponseDTO;
 import com.example.storeapi.dto.order.OrderResponseDTO;
+import com.example.storeapi.dto.order.OrderStatusTransitionsDTO;
 import com.example.storeapi.dto.order.OrderUpdateDTO;
 import com.example.storeapi.repository.CustomerRepository;
 import com.example.storeapi.repository.OrderRepository;
+import com.example.storeapi.repository.OrderSpecifications;
 import com.example.storeapi.repository.ProductRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.logging.Logger;
 
 @Service
@@ -31,15 +55,34 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final CustomerOrderStatsService statsService;
+    private final StoreMetrics metrics;
+    private final OrderOutbox outbox;
+    private final SalesRollupService salesRollups;
 
-    public OrderService(OrderRepository orderRepository, CustomerRepository customerRepository, ProductRepository productRepository) {
+    public OrderService(OrderRepository orderRepository, CustomerRepository customerRepository, ProductRepository productRepository,
+                        ProductCache productCache, CustomerOrderStatsService statsService, StoreMetrics metrics,
+                        OrderOutbox outbox, SalesRollupService salesRollups) {
         this.orderRepository = orderRepository;
         this.customerRepository = customerRepository;
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.statsService = statsService;
+        this.metrics = metrics;
+        this.outbox = outbox;
+        this.salesRollups = salesRollups;
     }
 
     private static final Logger LOG = Logger.getLogger(OrderService.class.getName());
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final int MAX_BULK_STATUS_IDS = 5000;
+
+    // Ordem do keyset: mais recentes primeiro, desempate por id (índices de V14)
+    private static final Sort KEYSET_ORDER = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
     @Transactional
     public OrderResponseDTO create(OrderCreateDTO dto) {
         Customer customer = customerRepository.findById(dto.getCustomerId())
@@ -52,59 +95,184 @@ public class OrderService {
         Order order = new Order();
         order.setCustomer(customer);
         if (dto.getStatus() != null) {
-            order.setStatus(OrderStatus.valueOf(dto.getStatus().toUpperCase()));
+            order.setStatus(OrderStatus.parse(dto.getStatus()));
         }
 
-        List<OrderItem> items = new ArrayList<>();
-        BigDecimal total = BigDecimal.ZERO;
-        for (OrderItemCreateDTO itemDto : dto.getItems()) {
-            Product product = productRepository.findById(itemDto.getProductId())
-                    .orElseThrow(() -> new EntityNotFoundException("Product not found"));
-            if (itemDto.getQuantity() == null || itemDto.getQuantity() <= 0) {
-                throw new IllegalArgumentException("Item quantity must be greater than 0");
-            }
-            OrderItem item = new OrderItem();
-            item.setOrder(order);
-            item.setProduct(product);
-            item.setQuantity(itemDto.getQuantity());
-            item.setUnitPrice(product.getPrice());
-            BigDecimal subtotal = product.getPrice()
-                    .multiply(BigDecimal.valueOf(itemDto.getQuantity()))
-                    .setScale(2, RoundingMode.HALF_UP);
-            item.setSubtotal(subtotal);
-            items.add(item);
-            total = total.add(subtotal);
-        }
-        order.setItems(items);
-        order.setTotal(total);
+        order.setTotal(applyItems(order, dto.getItems()));
 
         Order saved = orderRepository.save(order);
+        statsService.orderAdded(saved);
+        salesRollups.added(List.of(saved.getId()));
+        outbox.created(saved);
+        metrics.ordersCreated("single", 1);
         return toResponse(saved);
     }
 
+    // Ingestão em lote: clientes e produtos de todo o lote são carregados de uma vez e os inserts
+    // saem em JDBC batches (ids por sequence). Cada pedido inválido é reportado sem abortar o lote.
+    @Transactional
+    public List<OrderBatchResultDTO> createBatch(List<OrderCreateDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one order");
+        }
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch must contain at most " + MAX_BATCH_SIZE + " orders");
+        }
+
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        // Elementos null (do pedido ou de um item) não entram nas cargas; viram falha do índice no laço abaixo
+        for (OrderCreateDTO dto : dtos) {
+            if (dto == null) {
+                continue;
+            }
+            if (dto.getCustomerId() != null) {
+                customerIds.add(dto.getCustomerId());
+            }
+            if (dto.getItems() != null) {
+                for (OrderItemCreateDTO itemDto : dto.getItems()) {
+                    if (itemDto != null && itemDto.getProductId() != null) {
+                        productIds.add(itemDto.getProductId());
+                    }
+                }
+            }
+        }
+        Map<Long, Customer> customers = new HashMap<>();
+        for (Customer c : customerRepository.findAllById(customerIds)) {
+            customers.put(c.getId(), c);
+        }
+        Map<Long, CachedProduct> products = loadProducts(productIds);
+
+        List<OrderBatchResultDTO> results = new ArrayList<>(dtos.size());
+        List<Order> created = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            OrderCreateDTO dto = dtos.get(i);
+            try {
+                if (dto == null) {
+                    throw new IllegalArgumentException("Order must not be null");
+                }
+                Customer customer = dto.getCustomerId() == null ? null : customers.get(dto.getCustomerId());
+                if (customer == null) {
+                    throw new EntityNotFoundException("Customer not found");
+                }
+                if (dto.getItems() == null || dto.getItems().isEmpty()) {
+                    throw new IllegalArgumentException("Order must contain at least one item");
+                }
+                Map<Long, Integer> quantities = mergeLines(dto.getItems());
+                requireProducts(quantities.keySet(), products);
+
+                Order order = new Order();
+                order.setCustomer(customer);
+                if (dto.getStatus() != null) {
+                    order.setStatus(OrderStatus.parse(dto.getStatus()));
+                }
+                order.setTotal(addItems(order, quantities, products));
+
+                Order saved = orderRepository.save(order);
+                results.add(OrderBatchResultDTO.created(i, saved.getId()));
+                created.add(saved);
+            } catch (IllegalArgumentException | EntityNotFoundException ex) {
+                results.add(OrderBatchResultDTO.failed(i, ex.getMessage()));
+            }
+        }
+
+        statsService.ordersAdded(created);
+        salesRollups.added(created.stream().map(Order::getId).toList());
+        outbox.createdAll(created);
+        metrics.ordersCreated("batch", created.size());
+        LOG.info("Order batch processed: " + created.size() + " created, " + (dtos.size() - created.size()) + " failed");
+        return results;
+    }
+
+    // Só carrega o que sai na resposta (?fields=): cliente no mesmo SELECT se customerName foi pedido, itens + produtos
+    // numa segunda query se items foi pedido. Com todos os campos: orders + customer, count, items + products
     @Transactional(readOnly = true)
-    public Page<OrderResponseDTO> list(Pageable pageable) {
-        return orderRepository.findAll(pageable).map(this::toResponse);
+    public Page<OrderResponseDTO> list(OrderFilterDTO filter, Pageable pageable, Fields fields) {
+        Page<Order> page = orderRepository.findBy(toSpecification(filter), q -> withCustomer(q, fields).page(pageable));
+        if (fields.has("items")) {
+            fetchItems(page.getContent());
+        } else if (fields.has("itemCount")) {
+            countMissingItems(page.getContent());
+        }
+        return page.map(o -> toResponse(o, fields));
+    }
+
+    // Keyset em (createdAt desc, id desc), com os mesmos filtros da listagem paginada
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderResponseDTO> listAfter(OrderFilterDTO filter, String after, int limit, Fields fields) {
+        Cursors.checkLimit(limit);
+        Specification<Order> spec = toSpecification(filter);
+        if (after != null) {
+            String[] parts = Cursors.decode(after, 2);
+            OffsetDateTime createdAt;
+            long id;
+            try {
+                createdAt = OffsetDateTime.ofInstant(Instant.parse(parts[0]), ZoneOffset.UTC);
+                id = Long.parseLong(parts[1]);
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            spec = spec.and(OrderSpecifications.before(createdAt, id));
+        }
+        List<Order> rows = orderRepository.findBy(spec, q -> withCustomer(q, fields)
+                .sortBy(KEYSET_ORDER)
+                .limit(limit + 1)
+                .all());
+        if (fields.has("items")) {
+            fetchItems(rows);
+        } else if (fields.has("itemCount")) {
+            countMissingItems(rows);
+        }
+        return Cursors.page(rows, limit, o -> Cursors.encode(o.getCreatedAt().toInstant(), o.getId()),
+                o -> toResponse(o, fields));
     }
 
     @Transactional(readOnly = true)
-    public OrderResponseDTO get(Long id) {
-        Order o = orderRepository.findById(id)
+    public OrderResponseDTO get(Long id, Fields fields) {
+        Optional<Order> order = fields.has("items") ? orderRepository.findDetailedById(id)
+                : fields.has("customerName") ? orderRepository.findWithCustomerById(id)
+                : orderRepository.findById(id);
+        return toResponse(order.orElseThrow(() -> new EntityNotFoundException("Order not found")), fields);
+    }
+
+    // Status atual e próximos status permitidos, sem carregar o pedido
+    @Transactional(readOnly = true)
+    public OrderStatusTransitionsDTO transitions(Long id) {
+        OrderStatus status = orderRepository.findStatusById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found"));
+        return new OrderStatusTransitionsDTO(id, status, status.nextStates());
+    }
+
+    // ETag a partir das versões de pedido, cliente e produtos, sem carregar o pedido (If-None-Match)
+    @Transactional(readOnly = true)
+    public String etag(Long id) {
+        return orderRepository.findETagById(id)
+                .map(ETags::quote)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found"));
-        return toResponse(o);
     }
 
     @Transactional
-    public OrderResponseDTO updateStatus(Long id, OrderStatus status) {
-        Order o = orderRepository.findById(id)
+    public OrderResponseDTO updateStatus(Long id, OrderStatus status, String ifMatch) {
+        // Carrega cliente, itens e produtos junto: toResponse não dispara uma query por item
+        Order o = orderRepository.findDetailedById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found"));
+        requireETag(o, ifMatch);
 
-        // Validação adicional de transição de status (opcional, mas recomendado)
         validateStatusTransition(o.getStatus(), status);
 
+        OrderStatus previous = o.getStatus();
+        if (previous != status) {
+            salesRollups.removed(List.of(id));
+        }
         o.setStatus(status);
 
         Order saved = orderRepository.save(o);
+        statsService.orderChanged(saved.getCustomer().getId(), previous, saved.getTotal(), saved);
+        if (previous != status) {
+            salesRollups.added(List.of(id));
+            outbox.statusChanged(saved, previous);
+        }
+        metrics.statusChanged(previous, status);
 
         // Adicionar logs para debug
         LOG.info("Order " + id + " status updated to " + status);
@@ -112,10 +280,83 @@ public class OrderService {
         return toResponse(saved);
     }
 
+    // Troca de status em massa: um UPDATE condicional (status atual entre os predecessores permitidos do alvo),
+    // sem carregar pedidos nem montar respostas. Ids pedidos e não alterados voltam com o motivo.
+    @Transactional
+    public OrderBulkStatusResultDTO updateStatusBulk(Collection<Long> ids, Collection<OrderStatus> fromStatus,
+                                                     OffsetDateTime createdBefore, OrderStatus target) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        boolean byFilter = (fromStatus != null && !fromStatus.isEmpty()) || createdBefore != null;
+        if (!byIds && !byFilter) {
+            throw new IllegalArgumentException("Provide ids or a filter (fromStatus, createdBefore)");
+        }
+        Set<Long> requested = null;
+        if (byIds) {
+            if (ids.size() > MAX_BULK_STATUS_IDS) {
+                throw new IllegalArgumentException("Bulk status update accepts at most " + MAX_BULK_STATUS_IDS + " ids");
+            }
+            if (ids.contains(null)) {
+                throw new IllegalArgumentException("Order ids must not be null");
+            }
+            requested = new LinkedHashSet<>(ids);
+        }
+
+        EnumSet<OrderStatus> eligible = EnumSet.noneOf(OrderStatus.class);
+        eligible.addAll(target.predecessors());
+        if (fromStatus != null && !fromStatus.isEmpty()) {
+            eligible.retainAll(fromStatus);
+        }
+
+        Map<Long, OrderStatus> changed = eligible.isEmpty()
+                ? Map.of()
+                : orderRepository.updateStatusWhere(requested, eligible, createdBefore, target);
+
+        Map<OrderStatus, Long> transitions = new EnumMap<>(OrderStatus.class);
+        changed.values().forEach(previous -> transitions.merge(previous, 1L, Long::sum));
+        transitions.forEach((previous, count) -> metrics.statusChanged(previous, target, count));
+        LOG.info("Bulk status update to " + target + ": " + changed.size() + " orders " + transitions);
+
+        List<OrderBulkStatusResultDTO.Failure> failed = new ArrayList<>();
+        if (requested != null) {
+            requested.removeAll(changed.keySet());
+            if (!requested.isEmpty()) {
+                Map<Long, OrderStatus> current = new HashMap<>();
+                for (Object[] row : orderRepository.findStatusesByIdIn(requested)) {
+                    current.put((Long) row[0], (OrderStatus) row[1]);
+                }
+                for (Long id : requested) {
+                    OrderStatus status = current.get(id);
+                    failed.add(new OrderBulkStatusResultDTO.Failure(id, status, bulkFailureReason(status, target)));
+                }
+            }
+        }
+        return new OrderBulkStatusResultDTO(target, changed.size(), failed);
+    }
+
+    private static String bulkFailureReason(OrderStatus current, OrderStatus target) {
+        if (current == null) {
+            return "Order not found";
+        }
+        if (current == target) {
+            return "Order is already " + target;
+        }
+        if (!current.canTransitionTo(target)) {
+            return "Cannot transition from " + current + " to " + target;
+        }
+        // Fora de fromStatus/createdBefore, ou mudou de status durante a atualização
+        return "Order does not match the filter";
+    }
+
     @Transactional
-    public OrderResponseDTO update(Long id, OrderUpdateDTO dto) {
+    public OrderResponseDTO update(Long id, OrderUpdateDTO dto, String ifMatch) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found"));
+        requireETag(order, ifMatch);
+        Long previousCustomerId = order.getCustomer().getId();
+        OrderStatus previousStatus = order.getStatus();
+        BigDecimal previousTotal = order.getTotal();
+        // Tira a contribuição atual (itens/preços/status) dos rollups; a nova entra depois do save
+        salesRollups.removed(List.of(id));
 
         if (dto.getCustomerId() != null) {
             Customer customer = customerRepository.findById(dto.getCustomerId())
@@ -124,81 +365,225 @@ public class OrderService {
         }
 
         if (dto.getStatus() != null) {
-            order.setStatus(OrderStatus.valueOf(dto.getStatus().toUpperCase()));
+            OrderStatus status = OrderStatus.parse(dto.getStatus());
+            validateStatusTransition(previousStatus, status);
+            order.setStatus(status);
         }
 
         if (dto.getItems() != null) {
             if (dto.getItems().isEmpty()) {
                 throw new IllegalArgumentException("Order must contain at least one item");
             }
-            BigDecimal total = BigDecimal.ZERO;
-
             // IMPORTANT: Do not replace the collection instance when using orphanRemoval=true.
             // Replace-by-set breaks Hibernate tracking and can trigger:
             // "all-delete-orphan was no longer referenced by the owning entity instance".
             order.getItems().clear();
-            for (OrderItemCreateDTO itemDto : dto.getItems()) {
-                Product product = productRepository.findById(itemDto.getProductId())
-                        .orElseThrow(() -> new EntityNotFoundException("Product not found"));
-                if (itemDto.getQuantity() == null || itemDto.getQuantity() <= 0) {
-                    throw new IllegalArgumentException("Item quantity must be greater than 0");
-                }
-                OrderItem item = new OrderItem();
-                item.setOrder(order);
-                item.setProduct(product);
-                item.setQuantity(itemDto.getQuantity());
-                item.setUnitPrice(product.getPrice());
-                BigDecimal subtotal = product.getPrice()
-                        .multiply(BigDecimal.valueOf(itemDto.getQuantity()))
-                        .setScale(2, RoundingMode.HALF_UP);
-                item.setSubtotal(subtotal);
-                order.getItems().add(item);
-                total = total.add(subtotal);
-            }
-            order.setTotal(total);
+            order.setTotal(applyItems(order, dto.getItems()));
         }
 
         Order saved = orderRepository.save(order);
+        statsService.orderChanged(previousCustomerId, previousStatus, previousTotal, saved);
+        salesRollups.added(List.of(id));
+        outbox.updated(saved, previousStatus);
+        metrics.statusChanged(previousStatus, saved.getStatus());
         LOG.info("Order " + id + " updated");
         return toResponse(saved);
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new EntityNotFoundException("Order not found");
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found"));
+        statsService.orderRemoved(order);
+        salesRollups.removed(List.of(id));
+        outbox.deleted(order);
+        orderRepository.delete(order);
+    }
+
+    // Confere If-Match com o ETag atual; a versão carregada garante o resto no flush (@Version)
+    private void requireETag(Order order, String ifMatch) {
+        if (ifMatch != null) {
+            ETags.requireMatch(ifMatch, etag(order.getId()));
         }
-        orderRepository.deleteById(id);
     }
 
-    // Método auxiliar para validar transições (exemplo)
+    private static Specification<Order> toSpecification(OrderFilterDTO filter) {
+        Set<OrderStatus> statuses = null;
+        if (filter.getStatus() != null && !filter.getStatus().isEmpty()) {
+            statuses = EnumSet.noneOf(OrderStatus.class);
+            for (String s : filter.getStatus()) {
+                statuses.add(OrderStatus.parse(s));
+            }
+        }
+        if (filter.getCreatedFrom() != null && filter.getCreatedTo() != null
+                && !filter.getCreatedFrom().isBefore(filter.getCreatedTo())) {
+            throw new IllegalArgumentException("createdFrom must be before createdTo");
+        }
+        return OrderSpecifications.filter(filter.getCustomerId(), statuses, filter.getCreatedFrom(),
+                filter.getCreatedTo());
+    }
+
+    private static FetchableFluentQuery<Order> withCustomer(FetchableFluentQuery<Order> query, Fields fields) {
+        return fields.has("customerName") ? query.project("customer") : query;
+    }
+
+    private void fetchItems(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        orderRepository.fetchItemsByIdIn(orders.stream().map(Order::getId).toList());
+    }
+
+    // Pedidos que o OrderItemCountBackfill ainda não preencheu: conta order_items de todos numa query só. As listagens
+    // rodam em transação readOnly, então o valor fica só na resposta (quem grava é o backfill)
+    private void countMissingItems(List<Order> orders) {
+        List<Long> ids = orders.stream().filter(o -> o.getItemCount() == null).map(Order::getId).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : orderRepository.countItemsByOrderIdIn(ids)) {
+            counts.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        for (Order o : orders) {
+            if (o.getItemCount() == null) {
+                o.setItemCount(counts.getOrDefault(o.getId(), 0));
+            }
+        }
+    }
+
+    // Linhas repetidas do mesmo produto são somadas e todos os produtos são carregados numa única query
+    private BigDecimal applyItems(Order order, List<OrderItemCreateDTO> itemDtos) {
+        Map<Long, Integer> quantities = mergeLines(itemDtos);
+        return addItems(order, quantities, resolveProducts(quantities.keySet()));
+    }
+
+    // Package-private: usados também pelos benchmarks JMH (src/jmh/java)
+    Map<Long, Integer> mergeLines(List<OrderItemCreateDTO> itemDtos) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemCreateDTO itemDto : itemDtos) {
+            if (itemDto == null) {
+                throw new IllegalArgumentException("Item must not be null");
+            }
+            if (itemDto.getProductId() == null) {
+                throw new IllegalArgumentException("Item productId is required");
+            }
+            if (itemDto.getQuantity() == null || itemDto.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Item quantity must be greater than 0");
+            }
+            quantities.merge(itemDto.getProductId(), itemDto.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    BigDecimal addItems(Order order, Map<Long, Integer> quantities, Map<Long, CachedProduct> products) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            CachedProduct product = products.get(line.getKey());
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            // Referência sem SELECT: preço e nome vêm do cache
+            item.setProduct(productRepository.getReferenceById(product.getId()));
+            item.setQuantity(line.getValue());
+            item.setUnitPrice(product.getPrice());
+            BigDecimal subtotal = product.getPrice()
+                    .multiply(BigDecimal.valueOf(line.getValue()))
+                    .setScale(2, RoundingMode.HALF_UP);
+            item.setSubtotal(subtotal);
+            order.getItems().add(item);
+            total = total.add(subtotal);
+        }
+        order.setItemCount(order.getItems().size());
+        return total;
+    }
+
+    private Map<Long, CachedProduct> resolveProducts(Collection<Long> productIds) {
+        Map<Long, CachedProduct> products = loadProducts(productIds);
+        requireProducts(productIds, products);
+        return products;
+    }
+
+    // Produtos vêm do ProductCache; só os ausentes são lidos do banco, numa única query. Package-private pelo benchmark
+    Map<Long, CachedProduct> loadProducts(Collection<Long> productIds) {
+        Map<Long, CachedProduct> products = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : productIds) {
+            CachedProduct cached = productCache.getIfPresent(id);
+            if (cached != null) {
+                products.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Product p : productRepository.findWithCategoryByIdIn(misses)) {
+                CachedProduct loaded = CachedProduct.of(p);
+                productCache.put(loaded);
+                products.put(p.getId(), loaded);
+            }
+        }
+        return products;
+    }
+
+    private void requireProducts(Collection<Long> productIds, Map<Long, CachedProduct> products) {
+        if (!products.keySet().containsAll(productIds)) {
+            List<Long> missing = productIds.stream()
+                    .filter(id -> !products.containsKey(id))
+                    .toList();
+            throw new EntityNotFoundException("Product not found: " + missing);
+        }
+    }
+
+    // Regras em OrderStatus; manter o mesmo status é sempre aceito (no-op)
     private void validateStatusTransition(OrderStatus current, OrderStatus newStatus) {
-        // Implementar lógica de validação conforme suas regras de negócio
-        // Exemplo: alguns status não podem retroceder
-        if (current == OrderStatus.DELIVERED && newStatus == OrderStatus.PENDING) {
-            throw new IllegalStateException("Cannot revert from DELIVERED to PENDING");
+        if (current != newStatus && !current.canTransitionTo(newStatus)) {
+            throw new IllegalStateException("Cannot transition from " + current + " to " + newStatus);
         }
     }
 
-    private OrderResponseDTO toResponse(Order order) {
-        List<OrderItemResponseDTO> items = new ArrayList<>();
-        for (OrderItem i : order.getItems()) {
-            items.add(new OrderItemResponseDTO(
-                    i.getProduct().getId(),
-                    i.getProduct().getName(),
-                    i.getQuantity(),
-                    i.getUnitPrice(),
-                    i.getSubtotal()
-            ));
+    private String productName(Product product) {
+        if (!Hibernate.isInitialized(product)) {
+            CachedProduct cached = productCache.getIfPresent(product.getId());
+            if (cached != null) {
+                return cached.getName();
+            }
+        }
+        return product.getName();
+    }
+
+    OrderResponseDTO toResponse(Order order) {
+        return toResponse(order, Fields.ALL);
+    }
+
+    // Campos fora de "fields" ficam null e não são lidos: customer.getId() vem da FK, sem inicializar o proxy
+    private OrderResponseDTO toResponse(Order order, Fields fields) {
+        List<OrderItemResponseDTO> items = null;
+        if (fields.has("items")) {
+            items = new ArrayList<>();
+            for (OrderItem i : order.getItems()) {
+                items.add(new OrderItemResponseDTO(
+                        i.getProduct().getId(),
+                        productName(i.getProduct()),
+                        i.getQuantity(),
+                        i.getUnitPrice(),
+                        i.getSubtotal()
+                ));
+            }
         }
         return new OrderResponseDTO(
                 order.getId(),
                 order.getCustomer().getId(),
-                order.getCustomer().getName(),
+                fields.has("customerName") ? order.getCustomer().getName() : null,
                 order.getTotal(),
                 order.getStatus().name(),
                 order.getCreatedAt(),
+                fields.has("itemCount") ? itemCount(order) : null,
                 items
         );
     }
+
+    // Sem item_count (pedido anterior à V15 ainda fora do backfill), conta os itens: inicializa items se preciso
+    private static Integer itemCount(Order order) {
+        return order.getItemCount() != null ? order.getItemCount() : order.getItems().size();
+    }
 }
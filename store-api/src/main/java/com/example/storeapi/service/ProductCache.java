@@ -0,0 +1,165 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.dto.product.ProductCacheStatsDTO;
+import com.example.storeapi.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+// Cache local (read-through) de produtos usado pelo catálogo e pela precificação de pedidos.
+// Limitado por tamanho e TTL; com store.cache.products.enabled=false todas as leituras vão ao banco.
+// Entre instâncias: cada evict grava o id em product_changes (V17) na transação da escrita e check() remove só os
+// produtos listados desde a última leitura, então as outras instâncias ficam atrás de uma escrita por até um
+// check-interval (e não pelo TTL). Só a renomeação de categoria descarta o cache inteiro.
+@Component
+public class ProductCache implements MeterBinder {
+
+    private static final Logger LOG = Logger.getLogger(ProductCache.class.getName());
+    // Mais alterações que isso num check: descarta tudo
+    private static final int CHANGES_PER_CHECK = 1000;
+
+    private final ProductRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Cache<Long, CachedProduct> cache;
+    private final long retentionSeconds;
+    // Transações com xid menor já foram aplicadas (-1 = ainda não leu); só o check() altera
+    private long fromTxid = -1;
+    // xmin lido no check anterior: o fromTxid do próximo
+    private long previousXmin;
+
+    public ProductCache(ProductRepository repository, PlatformTransactionManager transactionManager,
+                        @Value("${store.cache.products.enabled:true}") boolean enabled,
+                        @Value("${store.cache.products.max-size:10000}") long maxSize,
+                        @Value("${store.cache.products.ttl:10m}") Duration ttl,
+                        @Value("${store.cache.products.change-retention:1d}") Duration changeRetention) {
+        this.repository = repository;
+        this.retentionSeconds = changeRetention.toSeconds();
+        // Como no CategorySnapshot: transação própria no primário, para o log não vir atrasado da réplica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public CachedProduct get(Long id, Function<Long, CachedProduct> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return cache.get(id, loader);
+    }
+
+    public CachedProduct getIfPresent(Long id) {
+        return enabled ? cache.getIfPresent(id) : null;
+    }
+
+    public void put(CachedProduct product) {
+        if (enabled) {
+            cache.put(product.getId(), product);
+        }
+    }
+
+    // Remove já e de novo após o commit, para que uma leitura concorrente não recoloque o valor antigo.
+    // Chamado na transação da escrita: a linha em product_changes avisa as outras instâncias.
+    public void evict(Long productId) {
+        repository.recordChange(productId);
+        cache.invalidate(productId);
+        afterCompletion(() -> cache.invalidate(productId));
+    }
+
+    // Renomear uma categoria invalida todos os produtos dela (o nome da categoria faz parte da entrada).
+    // As outras instâncias não sabem quais são os produtos da categoria e descartam tudo.
+    public void evictCategory(Long categoryId) {
+        repository.recordFlush();
+        Runnable evict = () -> cache.asMap().values().removeIf(p -> p.getCategoryId().equals(categoryId));
+        evict.run();
+        afterCompletion(evict);
+    }
+
+    // Dois SELECTs curtos no primário. O xmin é lido antes das linhas: toda transação com xid menor já terminou e,
+    // se confirmou, suas linhas aparecem na leitura seguinte; as ainda em andamento têm xid >= xmin e entram num
+    // check futuro, por mais que demorem a confirmar. fromTxid fica um check atrás do xmin, então cada linha é lida
+    // em dois checks seguidos: uma carga local que leu o valor antigo antes do commit e o gravou depois da primeira
+    // remoção sai na segunda. Uma transação de escrita longa segura o xmin, e as linhas desde ela são relidas a cada
+    // check (acima de CHANGES_PER_CHECK, descarta tudo). A primeira execução, logo após a subida, descarta tudo o
+    // que foi carregado antes dela.
+    @Scheduled(fixedDelayString = "${store.cache.products.check-interval:PT5S}")
+    public synchronized void check() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long xmin = transactionTemplate.execute(status -> repository.findSnapshotXmin());
+            if (fromTxid < 0) {
+                cache.invalidateAll();
+            } else {
+                List<Long> changed = transactionTemplate.execute(status ->
+                        repository.findChangedProductIds(fromTxid, CHANGES_PER_CHECK));
+                if (changed.size() == CHANGES_PER_CHECK || changed.contains(null)) {
+                    cache.invalidateAll();
+                } else {
+                    cache.invalidateAll(changed);
+                }
+            }
+            fromTxid = fromTxid < 0 ? xmin : previousXmin;
+            previousXmin = xmin;
+        } catch (RuntimeException ex) {
+            LOG.warning("Product cache change check failed: " + ex.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${store.cache.products.change-purge-cron:0 40 * * * *}")
+    public void purgeChanges() {
+        try {
+            Integer removed = transactionTemplate.execute(status -> repository.deleteChangesOlderThan(retentionSeconds));
+            if (removed != null && removed > 0) {
+                LOG.info("Product changes purged: " + removed);
+            }
+        } catch (RuntimeException ex) {
+            LOG.warning("Product changes purge failed: " + ex.getMessage());
+        }
+    }
+
+    public ProductCacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        return new ProductCacheStatsDTO(enabled, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+    // cache.gets{result=hit|miss}, cache.evictions, cache.size com cache=products
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "products");
+    }
+
+    private void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+}
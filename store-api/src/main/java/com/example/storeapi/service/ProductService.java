@@ -3,36 +3,58 @@ package com.example.storeapi.service;
 import com.example.storeapi.domain.Category;
 import com.example.storeapi.domain.Product;
 import com.example.storeapi.domain.ProductStatus;
+import com.example.storeapi.dto.common.CursorPageDTO;
+import com.example.storeapi.dto.common.Fields;
+import com.example.storeapi.dto.product.ProductCacheStatsDTO;
 import com.example.storeapi.dto.product.ProductCreateDTO;
+import com.example.storeapi.dto.product.ProductFilterDTO;
 import com.example.storeapi.dto.product.ProductPatchDTO;
 import com.example.storeapi.dto.product.ProductResponseDTO;
 import com.example.storeapi.dto.product.ProductUpdateDTO;
 import com.example.storeapi.repository.CategoryRepository;
 import com.example.storeapi.repository.OrderItemRepository;
 import com.example.storeapi.repository.ProductRepository;
+import com.example.storeapi.repository.ProductSearchRepository;
+import com.example.storeapi.repository.ProductSpecifications;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Service
 public class ProductService {
+    static final int MAX_SEARCH_LENGTH = 100;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final OrderItemRepository orderItemRepository;
+    private final ProductCache productCache;
+    private final CategorySnapshot categorySnapshot;
+    private final TransactionTemplate primaryLoad;
 
-    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository, OrderItemRepository orderItemRepository) {
+    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository, OrderItemRepository orderItemRepository, ProductCache productCache,
+                          CategorySnapshot categorySnapshot, PlatformTransactionManager transactionManager) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.orderItemRepository = orderItemRepository;
+        this.productCache = productCache;
+        this.categorySnapshot = categorySnapshot;
+        // Cargas do ProductCache: transação própria e não readOnly (primário), mesmo dentro de uma transação de leitura
+        this.primaryLoad = new TransactionTemplate(transactionManager);
+        this.primaryLoad.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     @Transactional
     public ProductResponseDTO create(ProductCreateDTO dto) {
-        Category category = categoryRepository.findById(dto.getCategoryId())
-                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Category not found"));
+        Category category = category(dto.getCategoryId());
         Product p = new Product();
         p.setName(dto.getName());
         p.setDescription(dto.getDescription());
@@ -44,24 +66,102 @@ public class ProductService {
         return toResponse(productRepository.save(p));
     }
 
+    // Sem join com categorias: categoryId vem da própria FK e categoryName do CategorySnapshot
     @Transactional(readOnly = true)
-    public Page<ProductResponseDTO> list(Pageable pageable) {
-        return productRepository.findAll(pageable).map(this::toResponse);
+    public Page<ProductResponseDTO> list(ProductFilterDTO filter, Pageable pageable, Fields fields) {
+        return productRepository.findAll(toSpecification(filter), pageable)
+                .map(p -> toResponse(p, fields));
     }
 
     @Transactional(readOnly = true)
-    public ProductResponseDTO get(Long id) {
-        Product p = productRepository.findById(id)
+    public CursorPageDTO<ProductResponseDTO> listAfter(ProductFilterDTO filter, String after, int limit, Fields fields) {
+        Cursors.checkLimit(limit);
+        long afterId = after == null ? 0L : Cursors.decodeId(after);
+        Specification<Product> spec = toSpecification(filter).and(ProductSpecifications.idGreaterThan(afterId));
+        List<Product> rows = productRepository.findBy(spec, q -> q
+                .sortBy(Sort.by("id"))
+                .limit(limit + 1)
+                .all());
+        return Cursors.page(rows, limit, e -> Cursors.encode(e.getId()), p -> toResponse(p, fields));
+    }
+
+    // Busca ranqueada com cursor keyset (modo|score|id): a página seguinte continua do último hit sem OFFSET.
+    // Full-text primeiro; só se não houver nenhum resultado tenta por trigramas (erro de digitação), que é bem mais
+    // caro por match. O modo vai no cursor, então as páginas seguintes não repetem a primeira tentativa.
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductResponseDTO> search(String q, Long categoryId, String after, int limit, Fields fields) {
+        Cursors.checkLimit(limit);
+        String query = q == null ? "" : q.strip();
+        if (query.isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        if (query.length() > MAX_SEARCH_LENGTH) {
+            throw new IllegalArgumentException("Search query must have at most " + MAX_SEARCH_LENGTH + " characters");
+        }
+        ProductSearchRepository.Mode mode = ProductSearchRepository.Mode.TEXT;
+        Float afterScore = null;
+        Long afterId = null;
+        if (after != null) {
+            String[] parts = Cursors.decode(after, 3);
+            try {
+                mode = ProductSearchRepository.Mode.valueOf(parts[0]);
+                afterScore = Float.parseFloat(parts[1]);
+                afterId = Long.parseLong(parts[2]);
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        List<ProductSearchRepository.Hit> hits = productRepository.search(mode, query, categoryId, afterScore, afterId, limit + 1, fields);
+        if (hits.isEmpty() && after == null) {
+            mode = ProductSearchRepository.Mode.FUZZY;
+            hits = productRepository.search(mode, query, categoryId, null, null, limit + 1, fields);
+        }
+        ProductSearchRepository.Mode pageMode = mode;
+        return Cursors.page(hits, limit, h -> Cursors.encode(pageMode, h.getScore(), h.getProduct().getId()),
+                ProductSearchRepository.Hit::getProduct);
+    }
+
+    // Do cache quando presente (mesma versão que get devolve); senão só as versões, sem carregar o produto
+    public String etag(Long id) {
+        CachedProduct cached = productCache.getIfPresent(id);
+        if (cached != null) {
+            return ETags.of(cached.getVersion(), cached.getCategoryVersion());
+        }
+        return productRepository.findETagById(id)
+                .map(ETags::quote)
                 .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Product not found"));
-        return toResponse(p);
+    }
+
+    // Sem @Transactional: um hit no cache não deve abrir transação nem pegar conexão do pool. O miss carrega do
+    // primário: o cache é compartilhado, e uma réplica atrasada o encheria com a versão anterior a uma escrita
+    // recente, servida (inclusive aos preços dos pedidos) até o TTL
+    public ProductResponseDTO get(Long id) {
+        CachedProduct p = productCache.get(id, key -> primaryLoad.execute(status ->
+                productRepository.findWithCategoryById(key)
+                        .map(CachedProduct::of)
+                        .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Product not found"))));
+        return new ProductResponseDTO(
+                p.getId(),
+                p.getName(),
+                p.getDescription(),
+                p.getPrice(),
+                p.getStatus().name(),
+                p.getCategoryId(),
+                p.getCategoryName(),
+                p.getCreatedAt()
+        );
+    }
+
+    public ProductCacheStatsDTO cacheStats() {
+        return productCache.stats();
     }
 
     @Transactional
-    public ProductResponseDTO update(Long id, ProductUpdateDTO dto) {
+    public ProductResponseDTO update(Long id, ProductUpdateDTO dto, String ifMatch) {
         Product p = productRepository.findById(id)
                 .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Product not found"));
-        Category category = categoryRepository.findById(dto.getCategoryId())
-                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Category not found"));
+        requireETag(p, ifMatch);
+        Category category = category(dto.getCategoryId());
         p.setName(dto.getName());
         p.setDescription(dto.getDescription());
         p.setPrice(dto.getPrice());
@@ -69,13 +169,15 @@ public class ProductService {
         if (dto.getStatus() != null) {
             p.setStatus(ProductStatus.valueOf(dto.getStatus().toUpperCase()));
         }
+        productCache.evict(id);
         return toResponse(productRepository.save(p));
     }
 
     @Transactional
-    public ProductResponseDTO patch(Long id, ProductPatchDTO dto) {
+    public ProductResponseDTO patch(Long id, ProductPatchDTO dto, String ifMatch) {
         Product p = productRepository.findById(id)
                 .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Product not found"));
+        requireETag(p, ifMatch);
 
         if (dto.getName() != null) {
             if (dto.getName().isBlank()) {
@@ -96,9 +198,7 @@ public class ProductService {
         }
 
         if (dto.getCategoryId() != null) {
-            Category category = categoryRepository.findById(dto.getCategoryId())
-                    .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Category not found"));
-            p.setCategory(category);
+            p.setCategory(category(dto.getCategoryId()));
         }
 
         if (dto.getStatus() != null) {
@@ -112,6 +212,7 @@ public class ProductService {
             }
         }
 
+        productCache.evict(id);
         return toResponse(productRepository.save(p));
     }
 
@@ -126,18 +227,63 @@ public class ProductService {
         }
 
         productRepository.deleteById(id);
+        productCache.evict(id);
+    }
+
+    // Só com If-Match: o ETag inclui a versão da categoria, e ler getCategory().getVersion() carrega o proxy
+    private static void requireETag(Product p, String ifMatch) {
+        if (ifMatch != null) {
+            ETags.requireMatch(ifMatch, ETags.of(p.getVersion(), p.getCategory().getVersion()));
+        }
+    }
+
+    private static Specification<Product> toSpecification(ProductFilterDTO filter) {
+        ProductStatus status = null;
+        if (filter.getStatus() != null) {
+            try {
+                status = ProductStatus.valueOf(filter.getStatus().strip().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Invalid product status: " + filter.getStatus());
+            }
+        }
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        return ProductSpecifications.filter(filter.getCategoryId(), status, filter.getMinPrice(), filter.getMaxPrice(),
+                filter.getCreatedAfter());
+    }
+
+    // Existência pelo snapshot e só uma referência para a FK, sem SELECT em categories (a FK continua valendo
+    // se a categoria tiver sido excluída em outra instância e o snapshot ainda não souber)
+    private Category category(Long id) {
+        categorySnapshot.require(id);
+        return categoryRepository.getReferenceById(id);
     }
 
     private ProductResponseDTO toResponse(Product p) {
+        return toResponse(p, Fields.ALL);
+    }
+
+    // Campos fora de "fields" ficam null; getCategory().getId() não inicializa o proxy
+    private ProductResponseDTO toResponse(Product p, Fields fields) {
+        Long categoryId = p.getCategory().getId();
         return new ProductResponseDTO(
                 p.getId(),
                 p.getName(),
                 p.getDescription(),
                 p.getPrice(),
                 p.getStatus().name(),
-                p.getCategory().getId(),
-                p.getCategory().getName(),
+                categoryId,
+                fields.has("categoryName") ? categoryName(p, categoryId) : null,
                 p.getCreatedAt()
         );
     }
+
+    // Do snapshot; uma categoria que ele ainda não tenha (criada em outra instância há menos de um check-interval)
+    // é carregada do banco
+    private String categoryName(Product p, Long categoryId) {
+        CachedCategory category = categorySnapshot.get(categoryId);
+        return category != null ? category.getName() : p.getCategory().getName();
+    }
 }
@@ -0,0 +1,74 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.domain.OrderStatus;
+import com.example.storeapi.dto.analytics.SalesReportDTO;
+import com.example.storeapi.dto.analytics.SalesRowDTO;
+import com.example.storeapi.repository.SalesRollupRepository;
+import com.example.storeapi.repository.SalesRollupRepository.Level;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Relatórios de vendas lidos só dos rollups diários: o custo depende do intervalo e do número de
+// categorias/produtos, não do volume de pedidos
+@Service
+public class SalesAnalyticsService {
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 3660;
+    private static final int MAX_LIMIT = 1000;
+
+    private final SalesRollupRepository repository;
+
+    public SalesAnalyticsService(SalesRollupRepository repository) {
+        this.repository = repository;
+    }
+
+    // from/to em UTC, "to" exclusivo; padrão: últimos 30 dias. statuses vazio = todos menos CANCELED
+    @Transactional(readOnly = true)
+    public SalesReportDTO sales(LocalDate from, LocalDate to, String groupBy, Collection<OrderStatus> statuses, int limit) {
+        Level level = parseGroupBy(groupBy);
+        if (to == null) {
+            to = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        }
+        if (from == null) {
+            from = to.minusDays(DEFAULT_DAYS);
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_DAYS) {
+            throw new IllegalArgumentException("Range must be at most " + MAX_DAYS + " days");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        Set<OrderStatus> effective = statuses == null || statuses.isEmpty()
+                ? EnumSet.complementOf(EnumSet.of(OrderStatus.CANCELED))
+                : EnumSet.copyOf(statuses);
+
+        // por dia o limite é o próprio intervalo
+        int rowLimit = level == Level.DAY ? MAX_DAYS : limit;
+        List<SalesRowDTO> rows = repository.report(level, from, to, effective, rowLimit).stream()
+                .map(r -> new SalesRowDTO(r.getDay(), r.getKey(), r.getName(), r.getRevenue(), r.getUnits(), r.getOrders()))
+                .toList();
+        return new SalesReportDTO(from, to, level.name().toLowerCase(Locale.ROOT), effective, rows);
+    }
+
+    private static Level parseGroupBy(String groupBy) {
+        return switch (groupBy == null ? "day" : groupBy.trim().toLowerCase(Locale.ROOT)) {
+            case "day" -> Level.DAY;
+            case "category" -> Level.CATEGORY;
+            case "product" -> Level.PRODUCT;
+            default -> throw new IllegalArgumentException("Invalid groupBy: " + groupBy + ". Use day, category or product");
+        };
+    }
+}
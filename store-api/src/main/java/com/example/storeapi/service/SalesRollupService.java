@@ -0,0 +1,74 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.repository.SalesRollupRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.logging.Logger;
+
+// Mantém os rollups diários de vendas. As escritas de pedidos chamam added/removed na própria transação
+// (só um insert em sales_deltas); fold() consolida os deltas em segundo plano, então os rollups ficam
+// atrás das escritas por até um poll-interval.
+@Service
+public class SalesRollupService {
+
+    private static final Logger LOG = Logger.getLogger(SalesRollupService.class.getName());
+
+    private final SalesRollupRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int foldBatchSize;
+    private volatile double pending;
+
+    public SalesRollupService(SalesRollupRepository repository, TransactionTemplate transactionTemplate,
+                              MeterRegistry registry,
+                              @Value("${store.analytics.rollup.fold-batch-size:10000}") int foldBatchSize) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.foldBatchSize = foldBatchSize;
+        Gauge.builder("store.analytics.rollup.pending", this, s -> s.pending)
+                .description("Sales deltas not yet folded into the daily rollups")
+                .register(registry);
+    }
+
+    // Pedidos criados, ou no estado novo depois de uma alteração
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void added(Collection<Long> orderIds) {
+        repository.recordDeltas(orderIds, 1);
+    }
+
+    // Pedidos no estado atual, antes de serem alterados ou excluídos
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removed(Collection<Long> orderIds) {
+        repository.recordDeltas(orderIds, -1);
+    }
+
+    @Scheduled(fixedDelayString = "${store.analytics.rollup.poll-interval:PT5S}")
+    public void fold() {
+        try {
+            Integer folded;
+            do {
+                folded = transactionTemplate.execute(status -> repository.tryLockFold() ? repository.foldDeltas(foldBatchSize) : 0);
+            } while (folded != null && folded == foldBatchSize);
+            pending = transactionTemplate.execute(status -> repository.pendingDeltas());
+        } catch (RuntimeException ex) {
+            LOG.warning("Sales rollup fold failed: " + ex.getMessage());
+        }
+    }
+
+    // Recalcula os rollups a partir de orders (histórico, ou depois de mover produtos entre categorias). Não trava
+    // as escritas de pedidos; só o fold espera o commit.
+    @Scheduled(cron = "${store.analytics.rollup.rebuild-cron:-}")
+    @Transactional
+    public void rebuild() {
+        long started = System.nanoTime();
+        repository.rebuild();
+        LOG.info("Sales rollups rebuilt in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.domain.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+// Contadores de negócio exportados pelo Actuator (/actuator/prometheus)
+@Component
+public class StoreMetrics {
+
+    private final MeterRegistry registry;
+
+    public StoreMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // source: "single" (POST /orders) ou "batch" (POST /orders:batch)
+    public void ordersCreated(String source, int count) {
+        if (count > 0) {
+            Counter.builder("store.orders.created")
+                    .description("Orders created")
+                    .tag("source", source)
+                    .register(registry)
+                    .increment(count);
+        }
+    }
+
+    public void statusChanged(OrderStatus from, OrderStatus to) {
+        statusChanged(from, to, 1);
+    }
+
+    public void statusChanged(OrderStatus from, OrderStatus to, long count) {
+        if (from != to && count > 0) {
+            Counter.builder("store.orders.status.transitions")
+                    .description("Order status transitions")
+                    .tag("from", from.name())
+                    .tag("to", to.name())
+                    .register(registry)
+                    .increment(count);
+        }
+    }
+
+    // source: "in-flight" (esperou a requisição original) ou "store" (resposta lida de idempotency_keys)
+    public void idempotentReplay(String source) {
+        Counter.builder("store.idempotency.replays")
+                .description("Requests answered with a stored Idempotency-Key response")
+                .tag("source", source)
+                .register(registry)
+                .increment();
+    }
+
+    // reason: tipo de falha (validation, constraint, argument); uri: padrão da rota, nunca o path cru
+    public void validationFailed(String reason, String uri) {
+        Counter.builder("store.validation.failures")
+                .description("Requests rejected with 400 by GlobalExceptionHandler")
+                .tag("reason", reason)
+                .tag("uri", uri)
+                .register(registry)
+                .increment();
+    }
+}
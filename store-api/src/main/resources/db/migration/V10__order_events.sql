@@ -0,0 +1,20 @@
+-- Outbox de eventos de pedidos: gravado na mesma transação da escrita e publicado depois pelo OrderEventDispatcher.
+-- Sem FK para orders: o evento de exclusão sobrevive ao pedido.
+CREATE TABLE IF NOT EXISTS order_events (
+    id BIGSERIAL PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    published_at TIMESTAMPTZ,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    last_error TEXT
+);
+
+-- Fila de pendentes na ordem de despacho, e "há evento anterior pendente para o mesmo pedido?"
+CREATE INDEX IF NOT EXISTS idx_order_events_pending ON order_events (id) WHERE published_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_order_events_pending_order ON order_events (order_id, id) WHERE published_at IS NULL;
+
+-- Limpeza dos já publicados
+CREATE INDEX IF NOT EXISTS idx_order_events_published_at ON order_events (published_at) WHERE published_at IS NOT NULL;
@@ -0,0 +1,65 @@
+-- Daily sales rollups (per day, per category and per product; always split by order status)
+-- Order writes only append signed rows to sales_deltas (no contention on hot per-day rows);
+-- SalesRollupService folds them into the rollup tables every few seconds.
+-- day = order created_at in UTC; category = category of the product when the order was written
+CREATE TABLE IF NOT EXISTS sales_daily (
+    day DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    revenue NUMERIC(19,2) NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    orders BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, status)
+);
+
+CREATE TABLE IF NOT EXISTS sales_daily_category (
+    day DATE NOT NULL,
+    category_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    revenue NUMERIC(19,2) NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    orders BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, category_id, status)
+);
+
+CREATE TABLE IF NOT EXISTS sales_daily_product (
+    day DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    revenue NUMERIC(19,2) NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    orders BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, product_id, status)
+);
+
+-- One row per (order, product, status) change; *_orders carry the +1/-1 order count for each rollup level
+CREATE TABLE IF NOT EXISTS sales_deltas (
+    id BIGSERIAL PRIMARY KEY,
+    day DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    revenue NUMERIC(19,2) NOT NULL,
+    units BIGINT NOT NULL,
+    product_orders INTEGER NOT NULL,
+    category_orders INTEGER NOT NULL,
+    day_orders INTEGER NOT NULL
+);
+
+-- Backfill from existing orders
+INSERT INTO sales_daily (day, status, revenue, units, orders)
+SELECT CAST(o.created_at AT TIME ZONE 'UTC' AS DATE), o.status, SUM(i.subtotal), SUM(i.quantity), COUNT(DISTINCT o.id)
+FROM orders o JOIN order_items i ON i.order_id = o.id
+GROUP BY 1, 2
+ON CONFLICT DO NOTHING;
+
+INSERT INTO sales_daily_category (day, category_id, status, revenue, units, orders)
+SELECT CAST(o.created_at AT TIME ZONE 'UTC' AS DATE), p.category_id, o.status, SUM(i.subtotal), SUM(i.quantity), COUNT(DISTINCT o.id)
+FROM orders o JOIN order_items i ON i.order_id = o.id JOIN products p ON p.id = i.product_id
+GROUP BY 1, 2, 3
+ON CONFLICT DO NOTHING;
+
+INSERT INTO sales_daily_product (day, product_id, status, revenue, units, orders)
+SELECT CAST(o.created_at AT TIME ZONE 'UTC' AS DATE), i.product_id, o.status, SUM(i.subtotal), SUM(i.quantity), COUNT(DISTINCT o.id)
+FROM orders o JOIN order_items i ON i.order_id = o.id
+GROUP BY 1, 2, 3
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,13 @@
+-- Product search (GET /api/v1/products/search)
+-- Full-text: stored tsvector over name (weight A) and description (weight B), kept in sync by Postgres itself
+-- Fuzzy: trigram index on name for typo-tolerant matching (word_similarity, "<%" operator)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE products
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('portuguese', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('portuguese', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (name gin_trgm_ops);
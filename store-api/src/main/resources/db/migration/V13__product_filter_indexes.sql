@@ -0,0 +1,11 @@
+-- Indexes for the server-side filters of GET /api/v1/products (categoryId, status, minPrice, maxPrice, createdAfter)
+
+-- Category (+ status) (+ price range) in one index; it also serves the category FK lookups,
+-- so the single-column index from V1 becomes redundant
+CREATE INDEX IF NOT EXISTS idx_products_category_status_price ON products(category_id, status, price);
+DROP INDEX IF EXISTS idx_products_category_id;
+
+-- Storefront listings filter ACTIVE products by price without a category; the partial index skips inactive rows
+CREATE INDEX IF NOT EXISTS idx_products_active_price ON products(price) WHERE status = 'ACTIVE';
+
+CREATE INDEX IF NOT EXISTS idx_products_created_at ON products(created_at);
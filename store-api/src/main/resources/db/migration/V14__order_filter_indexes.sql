@@ -0,0 +1,14 @@
+-- Indexes for the filters of GET /api/v1/orders (customerId, status, createdFrom, createdTo)
+-- Order listings sort by created_at DESC, id DESC (keyset), so each index ends with both columns:
+-- after the leading filter column the rows come out already in listing order and the scan stops at the page size
+
+-- A customer's orders; also serves the customer FK lookups, so the single-column index from V2 becomes redundant
+CREATE INDEX IF NOT EXISTS idx_orders_customer_created ON orders(customer_id, created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_orders_customer_id;
+
+-- Orders in a given status by date
+CREATE INDEX IF NOT EXISTS idx_orders_status_created ON orders(status, created_at DESC, id DESC);
+
+-- Open-orders queue: DELIVERED/CANCELED history only grows, this index keeps just the non-terminal orders
+CREATE INDEX IF NOT EXISTS idx_orders_open_created ON orders(created_at DESC, id DESC)
+    WHERE status NOT IN ('DELIVERED', 'CANCELED');
@@ -0,0 +1,16 @@
+-- Number of lines (order_items rows) of each order, kept by the application whenever the items are written,
+-- so order listings can show it without reading order_items.
+-- Nullable and without a default, so adding it does not rewrite orders. NULL = not counted yet: existing orders are
+-- filled after startup by OrderItemCountBackfill, in id ranges committed one at a time, and until then reads count
+-- order_items for those rows.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS item_count INTEGER;
+
+-- Backfill progress: orders with next_id < id <= last_id may still be NULL. Orders written from now on get the
+-- count from the application, so the current max(id) bounds the work.
+CREATE TABLE IF NOT EXISTS order_item_count_backfill (
+    next_id BIGINT NOT NULL,
+    last_id BIGINT NOT NULL
+);
+
+INSERT INTO order_item_count_backfill (next_id, last_id)
+SELECT 0, COALESCE(MAX(id), 0) FROM orders;
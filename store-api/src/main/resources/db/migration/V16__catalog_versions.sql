@@ -0,0 +1,9 @@
+-- Version stamp of each small catalog that the instances keep entirely in memory (e.g. CategorySnapshot).
+-- Every write to the catalog increments its row in the same transaction; instances compare the stamp
+-- periodically and reload when it has moved.
+CREATE TABLE IF NOT EXISTS catalog_versions (
+    name VARCHAR(50) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO catalog_versions (name, version) VALUES ('categories', 0) ON CONFLICT (name) DO NOTHING;
@@ -0,0 +1,15 @@
+-- Append-only log of product changes for the per-instance product caches (ProductCache): concurrent writes only
+-- insert rows, and each instance evicts just the listed products.
+-- product_id NULL = drop every cached product (category rename). txid is the writing transaction: readers track
+-- which transactions they have fully seen by xid (against pg_snapshot_xmin), not by insert order or time, so a
+-- change committed late by a long transaction is never skipped. changed_at only drives the purge.
+CREATE TABLE IF NOT EXISTS product_changes (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT,
+    txid BIGINT NOT NULL DEFAULT CAST(CAST(pg_current_xact_id() AS TEXT) AS BIGINT),
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp()
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_changes_txid ON product_changes(txid);
+
+CREATE INDEX IF NOT EXISTS idx_product_changes_changed_at ON product_changes(changed_at);
@@ -0,0 +1,3 @@
+-- Supporting index for keyset pagination of orders on (created_at, id)
+-- products, customers and categories page on the primary key
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_id ON orders(created_at DESC, id DESC);
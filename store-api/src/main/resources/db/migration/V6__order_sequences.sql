@@ -0,0 +1,12 @@
+-- Switch orders/order_items ids from IDENTITY to sequences so Hibernate can batch inserts.
+-- INCREMENT BY must match allocationSize (50) of the pooled optimizer in Order/OrderItem.
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 50;
+
+SELECT setval('orders_seq', COALESCE((SELECT MAX(id) FROM orders), 0) + 1);
+SELECT setval('order_items_seq', COALESCE((SELECT MAX(id) FROM order_items), 0) + 1);
+
+ALTER TABLE orders ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE order_items ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS orders_id_seq;
+DROP SEQUENCE IF EXISTS order_items_id_seq;
@@ -0,0 +1,18 @@
+-- Per-customer order counters maintained by OrderService in the same transaction as the order writes
+-- open = not DELIVERED/CANCELED; lifetime_value = sum of totals of non-CANCELED orders
+CREATE TABLE IF NOT EXISTS customer_order_stats (
+    customer_id BIGINT PRIMARY KEY,
+    total_orders BIGINT NOT NULL DEFAULT 0,
+    open_orders BIGINT NOT NULL DEFAULT 0,
+    lifetime_value NUMERIC(19,2) NOT NULL DEFAULT 0,
+    CONSTRAINT fk_customer_order_stats_customer FOREIGN KEY (customer_id) REFERENCES customers(id) ON DELETE CASCADE
+);
+
+INSERT INTO customer_order_stats (customer_id, total_orders, open_orders, lifetime_value)
+SELECT customer_id,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE status NOT IN ('DELIVERED', 'CANCELED')),
+       COALESCE(SUM(total) FILTER (WHERE status <> 'CANCELED'), 0)
+FROM orders
+GROUP BY customer_id
+ON CONFLICT (customer_id) DO NOTHING;
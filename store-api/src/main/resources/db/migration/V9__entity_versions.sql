@@ -0,0 +1,6 @@
+-- Optimistic locking (@Version) and ETags for products, categories, customers and orders
+-- ADD COLUMN with a constant default is metadata-only on PostgreSQL 11+ (no table rewrite)
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,128 @@
+package com.example.storeapi;
+
+import com.example.storeapi.config.StatementCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Base dos testes de integração: contexto completo (Flyway + JPA) contra PostgreSQL, porque as migrações e várias
+// queries são específicas do Postgres. Com TEST_DB_URL (e TEST_DB_USERNAME/TEST_DB_PASSWORD) usa esse banco;
+// senão sobe um postgres:16 via Testcontainers (requer Docker). Os testes criam os próprios dados e não dependem
+// de o banco estar vazio. Perfil "test": @QueryBudget em modo estrito.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public abstract class IntegrationTest {
+
+    private static PostgreSQLContainer<?> postgres;
+
+    // Banco efetivamente usado (TEST_DB_URL ou o container), para testes que precisam de um segundo banco no mesmo servidor
+    protected static String databaseUrl;
+    protected static String databaseUsername;
+    protected static String databasePassword;
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        String url = System.getenv("TEST_DB_URL");
+        if (url != null && !url.isBlank()) {
+            databaseUrl = url;
+            databaseUsername = env("TEST_DB_USERNAME", "postgres");
+            databasePassword = env("TEST_DB_PASSWORD", "root");
+        } else {
+            PostgreSQLContainer<?> container = postgres();
+            databaseUrl = container.getJdbcUrl() + "&reWriteBatchedInserts=true";
+            databaseUsername = container.getUsername();
+            databasePassword = container.getPassword();
+        }
+        registry.add("spring.datasource.url", () -> databaseUrl);
+        registry.add("spring.datasource.username", () -> databaseUsername);
+        registry.add("spring.datasource.password", () -> databasePassword);
+    }
+
+    // Um container para toda a execução (o Testcontainers o remove ao final da JVM)
+    private static synchronized PostgreSQLContainer<?> postgres() {
+        if (postgres == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+        }
+        return postgres;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    // O MockMvc executa a requisição na thread do teste: o StatementCounter tem os statements só dessa requisição
+    // (o StatementMetricsInterceptor zera no início). Falha com o número executado quando passa do orçamento.
+    protected static ResultMatcher statementsAtMost(int budget) {
+        return result -> assertThat(StatementCounter.current())
+                .as("SQL statements of %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(budget);
+    }
+
+    protected static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 12);
+    }
+
+    protected JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+
+    protected String toJson(Object body) throws Exception {
+        return objectMapper.writeValueAsString(body);
+    }
+
+    protected long create(String path, Object body) throws Exception {
+        MvcResult result = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(toJson(body)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return json(result).get("id").asLong();
+    }
+
+    protected long createCategory() throws Exception {
+        return create("/api/v1/categories", Map.of("name", unique("cat")));
+    }
+
+    protected long createProduct(long categoryId, String price) throws Exception {
+        return create("/api/v1/products", Map.of("name", unique("product"), "price", price, "categoryId", categoryId));
+    }
+
+    protected long createCustomer() throws Exception {
+        return create("/api/v1/customers", Map.of("name", "Customer", "email", unique("c") + "@example.com"));
+    }
+
+    protected long createOrder(long customerId, long... productIds) throws Exception {
+        return create("/api/v1/orders", orderBody(customerId, productIds));
+    }
+
+    protected static Map<String, Object> orderBody(long customerId, long... productIds) {
+        return Map.of("customerId", customerId, "items", Arrays.stream(productIds)
+                .mapToObj(id -> Map.of("productId", id, "quantity", 2))
+                .toList());
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.storeapi.config;
+
+import com.example.storeapi.IntegrationTest;
+import com.example.storeapi.dto.product.ProductResponseDTO;
+import com.example.storeapi.service.ProductCache;
+import com.example.storeapi.service.ProductService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Roteamento para a réplica com dois bancos no mesmo servidor: o de sempre como primário e "<banco>_replica"
+// (mesmas migrações, sem replicação) como réplica. O que é gravado pela API só existe no primário, então uma
+// leitura que vai à réplica não acha o registro.
+class ReplicaRoutingTest extends IntegrationTest {
+
+    private static final String REPLICA_SUFFIX = "_replica";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaHealth replicaHealth;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        registry.add("store.datasource.replica.enabled", () -> "true");
+        registry.add("store.datasource.replica.url", ReplicaRoutingTest::replicaDatabase);
+        registry.add("store.datasource.replica.username", () -> databaseUsername);
+        registry.add("store.datasource.replica.password", () -> databasePassword);
+        registry.add("store.datasource.replica.lag-query", () -> "select 0");
+        registry.add("store.datasource.replica.read-your-writes-window", () -> "1m");
+    }
+
+    @AfterEach
+    void replicaBackUp() {
+        replicaHealth.check();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(databaseName(true)).endsWith(REPLICA_SUFFIX);
+        assertThat(databaseName(false)).doesNotEndWith(REPLICA_SUFFIX);
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheReplicaIsMarkedDown() {
+        replicaHealth.markDown("test");
+
+        assertThat(databaseName(true)).doesNotEndWith(REPLICA_SUFFIX);
+
+        replicaHealth.check();
+
+        assertThat(databaseName(true)).endsWith(REPLICA_SUFFIX);
+    }
+
+    @Test
+    void failedReplicaConnectionFallsBackToThePrimaryAndMarksItDown() throws Exception {
+        ReplicaHealth health = new ReplicaHealth(primary, "select 0", Duration.ofSeconds(5));
+        health.check();
+        DataSource unreachable = new DriverManagerDataSource("jdbc:postgresql://localhost:1/none", "none", "none");
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, unreachable, health);
+
+        String database = readOnly().execute(status -> {
+            try (Connection c = routing.getConnection(); Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery("select current_database()")) {
+                rs.next();
+                return rs.getString(1);
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        assertThat(database).doesNotEndWith(REPLICA_SUFFIX);
+        assertThat(health.isUsable()).isFalse();
+    }
+
+    @Test
+    void clientIsPinnedToThePrimaryAfterAWrite() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/v1/customers").contentType(MediaType.APPLICATION_JSON)
+                        .header(ReadYourWritesFilter.CLIENT_ID_HEADER, "writer")
+                        .content(toJson(Map.of("name", "Customer", "email", unique("c") + "@example.com"))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = json(created).get("id").asLong();
+
+        // quem escreveu lê do primário; outro cliente lê da réplica, que não tem a linha
+        mockMvc.perform(get("/api/v1/customers/{id}", id).header(ReadYourWritesFilter.CLIENT_ID_HEADER, "writer"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/customers/{id}", id).header(ReadYourWritesFilter.CLIENT_ID_HEADER, "reader"))
+                .andExpect(status().isNotFound());
+    }
+
+    // O ProductCache é compartilhado: o miss logo depois de uma escrita carrega do primário, mesmo para um cliente
+    // que não escreveu (na réplica o produto nem existe)
+    @Test
+    void productCacheMissAfterAWriteLoadsFromThePrimary() throws Exception {
+        long id = createProduct(createCategory(), "10.00");
+        mockMvc.perform(patch("/api/v1/products/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .header(ReadYourWritesFilter.CLIENT_ID_HEADER, "writer")
+                        .content(toJson(Map.of("price", "12.00"))))
+                .andExpect(status().isOk());
+
+        MvcResult read = mockMvc.perform(get("/api/v1/products/{id}", id).header(ReadYourWritesFilter.CLIENT_ID_HEADER, "reader"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(json(read).get("price").decimalValue()).isEqualByComparingTo("12.00");
+
+        // também quando o get roda dentro de uma transação de leitura (que iria à réplica)
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> productCache.evict(id));
+        ProductResponseDTO loaded = readOnly().execute(status -> productService.get(id));
+        assertThat(loaded.getPrice()).isEqualByComparingTo("12.00");
+    }
+
+    private String databaseName(boolean readOnly) {
+        TransactionTemplate template = readOnly ? readOnly() : new TransactionTemplate(transactionManager);
+        return template.execute(status -> jdbcTemplate.queryForObject("select current_database()", String.class));
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    // Cria "<banco>_replica" no mesmo servidor (se ainda não existir) e aplica as migrações nele
+    private static synchronized String replicaDatabase() {
+        String url = databaseUrl.replaceFirst("^(jdbc:postgresql://[^/]+/)([^?]+)", "$1$2" + REPLICA_SUFFIX);
+        String name = url.replaceFirst("^jdbc:postgresql://[^/]+/([^?]+).*$", "$1");
+        try (Connection c = DriverManager.getConnection(databaseUrl, databaseUsername, databasePassword);
+             PreparedStatement exists = c.prepareStatement("select 1 from pg_database where datname = ?")) {
+            exists.setString(1, name);
+            try (ResultSet rs = exists.executeQuery()) {
+                if (!rs.next()) {
+                    try (Statement st = c.createStatement()) {
+                        st.execute("create database \"" + name + "\"");
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not create the replica database " + name, ex);
+        }
+        Flyway.configure().dataSource(url, databaseUsername, databasePassword).load().migrate();
+        return url;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.storeapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Bulkhead com uma vaga: uma requisição assíncrona (como a exportação em streaming) segura a vaga até o fim do
+// processamento assíncrono, não só até o filtro retornar
+class RequestConcurrencyLimitFilterTest {
+
+    private final RequestConcurrencyLimitFilter filter =
+            new RequestConcurrencyLimitFilter(1, Duration.ofMillis(50), new ObjectMapper().findAndRegisterModules());
+
+    @Test
+    void asyncRequestHoldsThePermitUntilItCompletes() throws Exception {
+        MockHttpServletRequest export = request();
+        filter.doFilter(export, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertThat(export.isAsyncStarted()).isTrue();
+
+        assertThat(status()).isEqualTo(503);
+
+        export.getAsyncContext().complete();
+
+        assertThat(status()).isEqualTo(200);
+        assertThat(status()).isEqualTo(200);
+    }
+
+    @Test
+    void syncRequestReleasesThePermitWhenTheChainReturns() throws Exception {
+        assertThat(status()).isEqualTo(200);
+        assertThat(status()).isEqualTo(200);
+    }
+
+    private int status() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain ok = (req, res) -> { };
+        filter.doFilter(request(), response, ok);
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders/export");
+        request.setAsyncSupported(true);
+        return request;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.storeapi.controller.v1;
+
+import com.example.storeapi.IntegrationTest;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Orçamento de statements de cada endpoint (@QueryBudget): o relatório lê só os rollups
+class AnalyticsControllerTest extends IntegrationTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"day", "category", "product"})
+    void sales(String groupBy) throws Exception {
+        mockMvc.perform(get("/api/v1/analytics/sales?groupBy={g}&status=PAID&status=DELIVERED", groupBy))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.storeapi.controller.v1;
+
+import com.example.storeapi.IntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Orçamento de statements de cada endpoint (@QueryBudget); as leituras vêm do CategorySnapshot
+class CategoryControllerTest extends IntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void create() throws Exception {
+        mockMvc.perform(post("/api/v1/categories").contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("name", unique("cat")))))
+                .andExpect(status().isCreated())
+                .andExpect(statementsAtMost(5));
+    }
+
+    @Test
+    void list() throws Exception {
+        createCategory();
+        mockMvc.perform(get("/api/v1/categories?size=50&sort=name,asc"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2));
+    }
+
+    // Com ?sort= a ordem é a da collation do banco (maiúsculas e minúsculas como o ORDER BY as coloca)
+    @Test
+    void listSortedByMixedCaseNames() throws Exception {
+        String prefix = unique("sort") + "-";
+        for (String name : List.of("Zeta", "alpha", "Beta", "gamma")) {
+            create("/api/v1/categories", Map.of("name", prefix + name));
+        }
+        JsonNode page = json(mockMvc.perform(get("/api/v1/categories?size=2000&sort=name,asc"))
+                .andExpect(status().isOk())
+                .andReturn());
+        List<String> names = new ArrayList<>();
+        page.get("content").forEach(c -> {
+            if (c.get("name").asText().startsWith(prefix)) {
+                names.add(c.get("name").asText());
+            }
+        });
+
+        assertThat(names).containsExactlyElementsOf(jdbcTemplate.queryForList(
+                "select name from categories where name like ? order by name", String.class, prefix + "%"));
+    }
+
+    @Test
+    void listWithCursor() throws Exception {
+        createCategory();
+        mockMvc.perform(get("/api/v1/categories?limit=50"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void getById() throws Exception {
+        long id = createCategory();
+        mockMvc.perform(get("/api/v1/categories/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void update() throws Exception {
+        long id = createCategory();
+        mockMvc.perform(put("/api/v1/categories/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("name", unique("cat")))))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(7));
+    }
+
+    @Test
+    void patchName() throws Exception {
+        long id = createCategory();
+        mockMvc.perform(patch("/api/v1/categories/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("name", unique("cat")))))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(7));
+    }
+
+    @Test
+    void deleteById() throws Exception {
+        long id = createCategory();
+        mockMvc.perform(delete("/api/v1/categories/{id}", id))
+                .andExpect(status().isNoContent())
+                .andExpect(statementsAtMost(7));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.storeapi.controller.v1;
+
+import com.example.storeapi.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Orçamento de statements de cada endpoint (@QueryBudget)
+class CustomerControllerTest extends IntegrationTest {
+
+    @Test
+    void create() throws Exception {
+        mockMvc.perform(post("/api/v1/customers").contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("name", "Customer", "email", unique("c") + "@example.com"))))
+                .andExpect(status().isCreated())
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void list() throws Exception {
+        createCustomer();
+        mockMvc.perform(get("/api/v1/customers?size=50"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void listWithCursor() throws Exception {
+        createCustomer();
+        mockMvc.perform(get("/api/v1/customers?limit=50"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+
+    @Test
+    void getById() throws Exception {
+        long id = createCustomer();
+        String etag = mockMvc.perform(get("/api/v1/customers/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/customers/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void orderCounts() throws Exception {
+        long id = createCustomer();
+        mockMvc.perform(get("/api/v1/customers/{id}/orders/count", id))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void update() throws Exception {
+        long id = createCustomer();
+        mockMvc.perform(put("/api/v1/customers/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("name", "Renamed", "email", unique("c") + "@example.com"))))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(4));
+    }
+
+    @Test
+    void patchName() throws Exception {
+        long id = createCustomer();
+        mockMvc.perform(patch("/api/v1/customers/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("name", "Renamed"))))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(4));
+    }
+
+    @Test
+    void deleteById() throws Exception {
+        long id = createCustomer();
+        mockMvc.perform(delete("/api/v1/customers/{id}", id))
+                .andExpect(status().isNoContent())
+                .andExpect(statementsAtMost(4));
+    }
+}
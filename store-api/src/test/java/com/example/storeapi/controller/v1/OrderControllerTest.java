@@ -0,0 +1,288 @@
+package com.example.storeapi.controller.v1;
+
+import com.example.storeapi.IntegrationTest;
+import com.example.storeapi.config.StatementCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Orçamento de statements de cada endpoint (@QueryBudget). As listagens usam páginas de 50 pedidos com 2 itens cada:
+// uma relação percorrida por linha (N+1) passaria do orçamento.
+class OrderControllerTest extends IntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long customerId;
+    private long product1;
+    private long product2;
+
+    @BeforeEach
+    void catalog() throws Exception {
+        long categoryId = createCategory();
+        customerId = createCustomer();
+        product1 = createProduct(categoryId, "10.50");
+        product2 = createProduct(categoryId, "3.25");
+    }
+
+    @Test
+    void create() throws Exception {
+        mockMvc.perform(post("/api/v1/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(orderBody(customerId, product1, product2))))
+                .andExpect(status().isCreated())
+                .andExpect(statementsAtMost(12));
+    }
+
+    @Test
+    void createWithIdempotencyKey() throws Exception {
+        mockMvc.perform(post("/api/v1/orders").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .content(toJson(orderBody(customerId, product1, product2))))
+                .andExpect(status().isCreated())
+                .andExpect(statementsAtMost(12));
+    }
+
+    // Os ids vêm de sequences com allocationSize 50: em 51 pedidos ao menos um cai na virada do bloco de orders_seq e
+    // de order_items_seq (um nextval a mais de cada), e precisa caber no orçamento
+    @Test
+    void createAcrossSequenceBlocks() throws Exception {
+        for (int i = 0; i <= 50; i++) {
+            mockMvc.perform(post("/api/v1/orders").contentType(MediaType.APPLICATION_JSON)
+                            .header("Idempotency-Key", UUID.randomUUID().toString())
+                            .content(toJson(orderBody(customerId, product1))))
+                    .andExpect(status().isCreated())
+                    .andExpect(statementsAtMost(12));
+        }
+    }
+
+    @Test
+    void listSummary() throws Exception {
+        createOrders(50);
+        mockMvc.perform(get("/api/v1/orders?size=50&customerId={c}", customerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(50))
+                .andExpect(statementsAtMost(3));
+    }
+
+    @Test
+    void listFull() throws Exception {
+        createOrders(50);
+        mockMvc.perform(get("/api/v1/orders?size=50&view=full&customerId={c}", customerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[49].items.length()").value(2))
+                .andExpect(statementsAtMost(3));
+    }
+
+    @Test
+    void listWithCursor() throws Exception {
+        createOrders(50);
+        mockMvc.perform(get("/api/v1/orders?limit=50&expand=items&customerId={c}", customerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[49].items.length()").value(2))
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void getById() throws Exception {
+        long id = createOrder(customerId, product1, product2);
+        String etag = mockMvc.perform(get("/api/v1/orders/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/orders/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void updateStatus() throws Exception {
+        long id = createOrder(customerId, product1, product2);
+        mockMvc.perform(patch("/api/v1/orders/{id}/status", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("status", "PAID"))))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(7));
+    }
+
+    @Test
+    void transitions() throws Exception {
+        long id = createOrder(customerId, product1);
+        mockMvc.perform(get("/api/v1/orders/{id}/status/transitions", id))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+
+    @Test
+    void updateStatusBulk() throws Exception {
+        List<Long> ids = createOrders(20);
+        mockMvc.perform(patch("/api/v1/orders/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("status", "PAID", "ids", ids))))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2));
+    }
+
+    // Efeitos colaterais do CTE do update em massa, que replica os do caminho de um pedido: contadores do cliente,
+    // um evento ORDER_STATUS_CHANGED por pedido alterado e deltas de vendas saindo do status anterior e entrando no
+    // novo. O advisory lock dos rollups segura o fold agendado, para os deltas ainda estarem em sales_deltas.
+    @Test
+    void updateStatusBulkSideEffects() throws Exception {
+        try (Connection rollupLock = dataSource.getConnection()) {
+            rollupLock.setAutoCommit(false);
+            try (Statement st = rollupLock.createStatement()) {
+                st.execute("select pg_advisory_xact_lock(hashtext('sales_rollups'))");
+            }
+            long canceled1 = createOrder(customerId, product1, product2);
+            long canceled2 = createOrder(customerId, product1, product2);
+            long delivered = createOrder(customerId, product1, product2);
+            mockMvc.perform(patch("/api/v1/orders/{id}/status", delivered).contentType(MediaType.APPLICATION_JSON)
+                            .content(toJson(Map.of("status", "DELIVERED"))))
+                    .andExpect(status().isOk());
+            long deltasBefore = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from sales_deltas", Long.class);
+
+            // cada pedido: 2 x 10.50 + 2 x 3.25 = 27.50
+            mockMvc.perform(patch("/api/v1/orders/status").contentType(MediaType.APPLICATION_JSON)
+                            .content(toJson(Map.of("status", "CANCELED", "ids", List.of(canceled1, canceled2, Long.MAX_VALUE)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.updated").value(2))
+                    .andExpect(jsonPath("$.failed.length()").value(1))
+                    .andExpect(jsonPath("$.failed[0].id").value(Long.MAX_VALUE))
+                    .andExpect(jsonPath("$.failed[0].currentStatus").doesNotExist())
+                    .andExpect(jsonPath("$.failed[0].error").value("Order not found"));
+
+            mockMvc.perform(get("/api/v1/customers/{id}/orders/count", customerId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(3))
+                    .andExpect(jsonPath("$.open").value(0))
+                    .andExpect(jsonPath("$.lifetimeValue").value(27.50));
+
+            for (long id : List.of(canceled1, canceled2)) {
+                List<String> events = jdbcTemplate.queryForList("select payload from order_events " +
+                        "where order_id = ? and event_type = 'ORDER_STATUS_CHANGED'", String.class, id);
+                assertThat(events).hasSize(1);
+                JsonNode payload = objectMapper.readTree(events.get(0));
+                assertThat(payload.get("previousStatus").asText()).isEqualTo("CREATED");
+                assertThat(payload.get("status").asText()).isEqualTo("CANCELED");
+            }
+
+            // por pedido e produto: sai de CREATED (negativo) e entra em CANCELED (positivo)
+            List<String> deltas = jdbcTemplate.queryForList("select status || ' ' || revenue || ' ' || units || ' ' || " +
+                    "product_orders from sales_deltas where id > ? and product_id = ? order by status, id",
+                    String.class, deltasBefore, product1);
+            assertThat(deltas).containsExactly("CANCELED 21.00 2 1", "CANCELED 21.00 2 1",
+                    "CREATED -21.00 -2 -1", "CREATED -21.00 -2 -1");
+
+            // fora da tabela de transições: não muda e volta com o status atual e o motivo
+            mockMvc.perform(patch("/api/v1/orders/status").contentType(MediaType.APPLICATION_JSON)
+                            .content(toJson(Map.of("status", "PENDING", "ids", List.of(delivered)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.updated").value(0))
+                    .andExpect(jsonPath("$.failed[0].id").value(delivered))
+                    .andExpect(jsonPath("$.failed[0].currentStatus").value("DELIVERED"))
+                    .andExpect(jsonPath("$.failed[0].error").value("Cannot transition from DELIVERED to PENDING"));
+            rollupLock.rollback();
+        }
+    }
+
+    @Test
+    void update() throws Exception {
+        long id = createOrder(customerId, product1, product2);
+        mockMvc.perform(put("/api/v1/orders/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("customerId", customerId, "status", "PENDING",
+                                "items", List.of(Map.of("productId", product1, "quantity", 1))))))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(13));
+    }
+
+    @Test
+    void updateAcrossSequenceBlocks() throws Exception {
+        long id = createOrder(customerId, product1);
+        for (int i = 0; i <= 50; i++) {
+            mockMvc.perform(put("/api/v1/orders/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                            .content(toJson(Map.of("customerId", customerId, "status", "PENDING",
+                                    "items", List.of(Map.of("productId", product1, "quantity", 1))))))
+                    .andExpect(status().isOk())
+                    .andExpect(statementsAtMost(13));
+        }
+    }
+
+    @Test
+    void deleteById() throws Exception {
+        long id = createOrder(customerId, product1, product2);
+        mockMvc.perform(delete("/api/v1/orders/{id}", id))
+                .andExpect(status().isNoContent())
+                .andExpect(statementsAtMost(7));
+    }
+
+    // Sem @QueryBudget fixo, mas clientes e produtos são uma query cada e os inserts vão em JDBC batch:
+    // até 50 pedidos, um lote grande executa os mesmos statements que um lote de dois. A única variação é o nextval
+    // de orders_seq/order_items_seq quando o lote cruza a virada de um bloco de 50 ids (no máximo uma de cada aqui).
+    @Test
+    void createBatchDoesNotGrowWithTheBatch() throws Exception {
+        int small = batchStatements(2);
+        int large = batchStatements(40);
+        assertThat(large).isBetween(small - 2, small + 2);
+    }
+
+    // Elemento null no lote (ou na lista de itens) é uma falha do seu índice, não um 500 do lote inteiro
+    @Test
+    void createBatchReportsNullElementsPerIndex() throws Exception {
+        Map<String, Object> nullItem = new HashMap<>(orderBody(customerId, product1));
+        nullItem.put("items", Arrays.asList(Map.of("productId", product1, "quantity", 1), null));
+        String body = "[" + toJson(orderBody(customerId, product1)) + ",null," + toJson(nullItem) + "]";
+
+        JsonNode results = json(mockMvc.perform(post("/api/v1/orders:batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn());
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).get("success").asBoolean()).isTrue();
+        assertThat(results.get(1).get("index").asInt()).isEqualTo(1);
+        assertThat(results.get(1).get("error").asText()).isEqualTo("Order must not be null");
+        assertThat(results.get(2).get("error").asText()).isEqualTo("Item must not be null");
+    }
+
+    private int batchStatements(int orders) throws Exception {
+        List<Map<String, Object>> body = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            body.add(orderBody(customerId, product1));
+        }
+        mockMvc.perform(post("/api/v1/orders:batch").contentType(MediaType.APPLICATION_JSON).content(toJson(body)))
+                .andExpect(status().isOk());
+        return StatementCounter.current();
+    }
+
+    private List<Long> createOrders(int count) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(createOrder(customerId, product1, product2));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.storeapi.controller.v1;
+
+import com.example.storeapi.IntegrationTest;
+import com.example.storeapi.dto.order.OrderCreateDTO;
+import com.example.storeapi.dto.order.OrderResponseDTO;
+import com.example.storeapi.repository.IdempotencyKeyRepository;
+import com.example.storeapi.service.IdempotencyService;
+import com.example.storeapi.service.OrderService;
+import com.example.storeapi.service.StoreMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Idempotency-Key sob concorrência: 100 retries simultâneos (HTTP de verdade, threads do Tomcat) com a mesma chave
+// criam um único pedido, e todos recebem o mesmo pedido
+class OrderIdempotencyTest extends IntegrationTest {
+
+    private static final int RETRIES = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @SpyBean
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StoreMetrics metrics;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private ExecutorService executor;
+    private long customerId;
+    private long productId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        customerId = createCustomer();
+        productId = createProduct(createCategory(), "10.50");
+        executor = Executors.newFixedThreadPool(RETRIES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentRetriesCreateOneOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = toJson(orderBody(customerId, productId));
+
+        List<HttpResponse<String>> responses = concurrently(RETRIES, i -> post(key, body));
+
+        assertThat(responses).allSatisfy(r -> assertThat(r.statusCode()).isEqualTo(201));
+        assertThat(responses.stream().map(this::orderId).distinct()).hasSize(1);
+        assertThat(ordersOfCustomer()).isEqualTo(1);
+        verify(orderService, times(1)).create(any());
+    }
+
+    // Corpo diferente com a mesma chave: 409, sem executar a ação de novo
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        HttpResponse<String> first = post(key, toJson(orderBody(customerId, productId)));
+        assertThat(first.statusCode()).as(first.body()).isEqualTo(201);
+
+        Map<String, Object> other = Map.of("customerId", customerId,
+                "items", List.of(Map.of("productId", productId, "quantity", 5)));
+        HttpResponse<String> retry = post(key, toJson(other));
+
+        assertThat(retry.statusCode()).isEqualTo(409);
+        assertThat(ordersOfCustomer()).isEqualTo(1);
+        verify(orderService, times(1)).create(any());
+    }
+
+    // Corpos diferentes disputando a mesma chave: quem chegar primeiro cria o pedido; os retries com o mesmo corpo
+    // recebem esse pedido e os demais, 409
+    @Test
+    void concurrentRetriesWithDifferentBodiesCreateOneOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String bodyA = toJson(orderBody(customerId, productId));
+        String bodyB = toJson(Map.of("customerId", customerId,
+                "items", List.of(Map.of("productId", productId, "quantity", 5))));
+
+        List<HttpResponse<String>> responses = concurrently(RETRIES, i -> post(key, i % 2 == 0 ? bodyA : bodyB));
+
+        List<HttpResponse<String>> created = responses.stream().filter(r -> r.statusCode() == 201).toList();
+        assertThat(created).isNotEmpty();
+        assertThat(created.stream().map(this::orderId).distinct()).hasSize(1);
+        assertThat(created.stream().map(r -> json(r).at("/items/0/quantity").asInt()).distinct()).hasSize(1);
+        assertThat(responses).allSatisfy(r -> assertThat(r.statusCode()).isIn(201, 409));
+        assertThat(ordersOfCustomer()).isEqualTo(1);
+        verify(orderService, times(1)).create(any());
+    }
+
+    // Duas instâncias da aplicação (cada uma com sua tabela de requisições em andamento): a disputa passa a ser
+    // decidida no banco, pelo insert em idempotency_keys
+    @Test
+    void concurrentRetriesAcrossInstancesCreateOneOrder() throws Exception {
+        List<IdempotencyService> instances = List.of(newInstance(), newInstance());
+        String key = UUID.randomUUID().toString();
+        OrderCreateDTO dto = objectMapper.readValue(toJson(orderBody(customerId, productId)), OrderCreateDTO.class);
+
+        List<OrderResponseDTO> results = concurrently(RETRIES, i -> instances.get(i % 2)
+                .execute("POST /api/v1/orders", key, dto, OrderResponseDTO.class, () -> orderService.create(dto)));
+
+        assertThat(results.stream().map(OrderResponseDTO::getId).distinct()).hasSize(1);
+        assertThat(ordersOfCustomer()).isEqualTo(1);
+        verify(orderService, times(1)).create(any());
+    }
+
+    private IdempotencyService newInstance() {
+        return new IdempotencyService(idempotencyKeyRepository, transactionTemplate, objectMapper, metrics,
+                Duration.ofHours(1), Duration.ofSeconds(30));
+    }
+
+    private interface Call<T> {
+        T run(int index) throws Exception;
+    }
+
+    // Todas as threads esperam no latch e disparam juntas
+    private <T> List<T> concurrently(int count, Call<T> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            Callable<T> task = () -> {
+                start.await();
+                return call.run(index);
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private HttpResponse<String> post(String key, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/orders"))
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", key)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private long orderId(HttpResponse<String> response) {
+        return json(response).get("id").asLong();
+    }
+
+    private JsonNode json(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (Exception ex) {
+            throw new AssertionError("Invalid response: " + response.body(), ex);
+        }
+    }
+
+    private long ordersOfCustomer() {
+        return jdbcTemplate.queryForObject("select count(*) from orders where customer_id = ?", Long.class, customerId);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.storeapi.controller.v1;
+
+import com.example.storeapi.IntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Orçamento de statements de cada endpoint (@QueryBudget)
+class ProductControllerTest extends IntegrationTest {
+
+    private long categoryId;
+
+    @BeforeEach
+    void category() throws Exception {
+        categoryId = createCategory();
+    }
+
+    @Test
+    void create() throws Exception {
+        mockMvc.perform(post("/api/v1/products").contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("name", unique("product"), "price", "10.50", "categoryId", categoryId))))
+                .andExpect(status().isCreated())
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void listWithFilters() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createProduct(categoryId, "1" + i + ".00");
+        }
+        mockMvc.perform(get("/api/v1/products?size=50&categoryId={c}&status=ACTIVE&minPrice=1&maxPrice=100", categoryId))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void listWithCursor() throws Exception {
+        createProduct(categoryId, "10.00");
+        mockMvc.perform(get("/api/v1/products?limit=50"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+
+    @Test
+    void search() throws Exception {
+        createProduct(categoryId, "10.00");
+        mockMvc.perform(get("/api/v1/products/search?q=product&limit=20"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(3));
+    }
+
+    // Sem categoryName em ?fields= a busca não faz join com categories; com ele o nome vem preenchido
+    @Test
+    void searchWithFields() throws Exception {
+        long id = createProduct(categoryId, "10.00");
+        JsonNode trimmed = json(mockMvc.perform(get("/api/v1/products/search?q=product&categoryId={c}&fields=id,categoryId",
+                        categoryId))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(3))
+                .andReturn()).get("content").get(0);
+        assertThat(trimmed.get("id").asLong()).isEqualTo(id);
+        assertThat(trimmed.get("categoryId").asLong()).isEqualTo(categoryId);
+        assertThat(trimmed.has("categoryName")).isFalse();
+
+        JsonNode named = json(mockMvc.perform(get("/api/v1/products/search?q=product&categoryId={c}&fields=id,categoryName",
+                        categoryId))
+                .andExpect(status().isOk())
+                .andReturn()).get("content").get(0);
+        assertThat(named.get("categoryName").asText()).startsWith("cat");
+    }
+
+    @Test
+    void getById() throws Exception {
+        long id = createProduct(categoryId, "10.00");
+        String etag = mockMvc.perform(get("/api/v1/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/products/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(statementsAtMost(2));
+    }
+
+    // JSON e CBOR são representações diferentes: cada uma tem seu ETag, e o de uma não dá 304 na outra
+    @Test
+    void getByIdAsCbor() throws Exception {
+        long id = createProduct(categoryId, "10.00");
+        String json = mockMvc.perform(get("/api/v1/products/{id}", id))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String cbor = mockMvc.perform(get("/api/v1/products/{id}", id).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(cbor).isNotEqualTo(json).endsWith("-cbor\"");
+
+        mockMvc.perform(get("/api/v1/products/{id}", id).accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/products/{id}", id).header(HttpHeaders.IF_NONE_MATCH, cbor))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/products/{id}", id).accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cbor))
+                .andExpect(status().isNotModified());
+
+        // If-Match vale com o ETag de qualquer formato
+        mockMvc.perform(patch("/api/v1/products/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_MATCH, cbor)
+                        .content(toJson(Map.of("price", "11.00"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, endsWith("-cbor\"")));
+    }
+
+    @Test
+    void cacheStats() throws Exception {
+        mockMvc.perform(get("/api/v1/products/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(0));
+    }
+
+    // Sem If-Match a categoria do produto não é carregada (o ETag só é calculado para conferir o header)
+    @Test
+    void update() throws Exception {
+        long id = createProduct(categoryId, "10.00");
+        mockMvc.perform(put("/api/v1/products/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("name", unique("product"), "price", "12.00", "categoryId", categoryId,
+                                "status", "ACTIVE"))))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(4));
+    }
+
+    @Test
+    void patchPriceAndCategory() throws Exception {
+        long id = createProduct(categoryId, "10.00");
+        long otherCategory = createCategory();
+        mockMvc.perform(patch("/api/v1/products/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("price", "11.00", "categoryId", otherCategory))))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(4));
+    }
+
+    @Test
+    void deleteById() throws Exception {
+        long id = createProduct(categoryId, "10.00");
+        mockMvc.perform(delete("/api/v1/products/{id}", id))
+                .andExpect(status().isNoContent())
+                .andExpect(statementsAtMost(5));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.IntegrationTest;
+import com.example.storeapi.repository.CustomerOrderStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// customer_order_stats acompanha cada caminho de escrita de pedidos (criação, status, status em massa, exclusão)
+// e o rebuild chega aos mesmos valores a partir de orders
+class CustomerOrderStatsServiceTest extends IntegrationTest {
+
+    @Autowired
+    private CustomerOrderStatsService statsService;
+
+    @Autowired
+    private CustomerOrderStatsRepository statsRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void countersFollowOrderWritesAndRebuild() throws Exception {
+        long customerId = createCustomer();
+        long productId = createProduct(createCategory(), "10.00");
+        // quantidade 2 por item: cada pedido vale 20.00
+        long canceled = createOrder(customerId, productId);
+        long delivered = createOrder(customerId, productId);
+        long deleted = createOrder(customerId, productId);
+        assertCounts(customerId, 3, 3, "60.00");
+
+        mockMvc.perform(patch("/api/v1/orders/{id}/status", canceled).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("status", "CANCELED"))))
+                .andExpect(status().isOk());
+        assertCounts(customerId, 3, 2, "40.00");
+
+        mockMvc.perform(patch("/api/v1/orders/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("status", "DELIVERED", "ids", List.of(delivered)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+        assertCounts(customerId, 3, 1, "40.00");
+
+        mockMvc.perform(delete("/api/v1/orders/{id}", deleted))
+                .andExpect(status().isNoContent());
+        assertCounts(customerId, 2, 0, "20.00");
+
+        transactionTemplate.executeWithoutResult(status ->
+                statsRepository.applyDelta(customerId, 5, 3, new BigDecimal("99.00")));
+        statsService.rebuild();
+        assertCounts(customerId, 2, 0, "20.00");
+    }
+
+    private void assertCounts(long customerId, long total, long open, String lifetimeValue) throws Exception {
+        mockMvc.perform(get("/api/v1/customers/{id}/orders/count", customerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(total))
+                .andExpect(jsonPath("$.open").value(open))
+                .andExpect(jsonPath("$.lifetimeValue").value(Double.parseDouble(lifetimeValue)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.IntegrationTest;
+import com.example.storeapi.dto.order.OrderEventDTO;
+import com.example.storeapi.repository.OrderEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// O sink (HTTP, até segundos por evento) é chamado sem transação e sem lock nas linhas de order_events; reserva e
+// marcação são transações curtas separadas
+class OrderEventDispatcherTest extends IntegrationTest {
+
+    @Autowired
+    private OrderEventRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long orderId;
+
+    @BeforeEach
+    void order() throws Exception {
+        orderId = createOrder(createCustomer(), createProduct(createCategory(), "10.50"));
+    }
+
+    @Test
+    void publishesOutsideTransactionsAndMarksPublished() {
+        List<Boolean> inTransaction = new ArrayList<>();
+        List<Long> lockable = new ArrayList<>();
+        dispatcher(event -> {
+            if (event.getOrderId() == orderId) {
+                inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+                // NOWAIT falha se a linha estiver travada por uma transação aberta do dispatcher
+                lockable.add(jdbcTemplate.queryForObject(
+                        "select id from order_events where id = ? for update nowait", Long.class, event.getId()));
+            }
+        }).dispatch();
+
+        assertThat(inTransaction).containsExactly(false);
+        assertThat(lockable).hasSize(1);
+        Map<String, Object> row = event();
+        assertThat(row.get("published_at")).isNotNull();
+        assertThat(row.get("attempts")).isEqualTo(0);
+    }
+
+    @Test
+    void failedDeliveryIsRescheduled() {
+        dispatcher(event -> {
+            if (event.getOrderId() == orderId) {
+                throw new IllegalStateException("sink down");
+            }
+        }).dispatch();
+
+        Map<String, Object> row = event();
+        assertThat(row.get("published_at")).isNull();
+        assertThat(row.get("attempts")).isEqualTo(1);
+        assertThat((String) row.get("last_error")).contains("sink down");
+    }
+
+    // Lotes grandes e muitas rodadas: a fila do banco de teste pode ter eventos de outros testes na frente
+    private OrderEventDispatcher dispatcher(OrderEventSink sink) {
+        return new OrderEventDispatcher(repository, sink, transactionTemplate, new SimpleMeterRegistry(),
+                500, 1000, Duration.ofSeconds(1), Duration.ofMinutes(5), Duration.ofDays(7), Duration.ofMinutes(2));
+    }
+
+    private Map<String, Object> event() {
+        return jdbcTemplate.queryForMap(
+                "select published_at, attempts, last_error from order_events where order_id = ?", orderId);
+    }
+}
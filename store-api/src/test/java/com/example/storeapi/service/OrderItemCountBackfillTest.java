@@ -0,0 +1,81 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.IntegrationTest;
+import com.example.storeapi.config.StatementCounter;
+import com.example.storeapi.dto.common.Fields;
+import com.example.storeapi.dto.order.OrderFilterDTO;
+import com.example.storeapi.dto.order.OrderResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pedidos com item_count null (como os anteriores à V15): a listagem conta os itens numa query só, e o backfill
+// preenche a coluna a partir da faixa pendente em order_item_count_backfill
+class OrderItemCountBackfillTest extends IntegrationTest {
+
+    private static final int ORDERS = 5;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemCountBackfill backfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private OrderFilterDTO filter;
+    private long firstId;
+    private long lastId;
+
+    @BeforeEach
+    void ordersWithoutItemCount() throws Exception {
+        long categoryId = createCategory();
+        long customerId = createCustomer();
+        long product1 = createProduct(categoryId, "10.50");
+        long product2 = createProduct(categoryId, "3.25");
+        firstId = createOrder(customerId, product1, product2);
+        for (int i = 1; i < ORDERS; i++) {
+            lastId = createOrder(customerId, product1, product2);
+        }
+        jdbcTemplate.update("update orders set item_count = null where customer_id = ?", customerId);
+        filter = new OrderFilterDTO();
+        filter.setCustomerId(customerId);
+    }
+
+    // página + uma contagem de order_items para todos os pedidos sem item_count (sem count: a página não enche)
+    @Test
+    void listCountsItemsOfOrdersNotBackfilledYet() {
+        StatementCounter.reset();
+        Page<OrderResponseDTO> page = orderService.list(filter, PageRequest.of(0, 20),
+                Fields.parse(null, OrderResponseDTO.FIELDS, OrderResponseDTO.SUMMARY_FIELDS));
+
+        assertThat(StatementCounter.current()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(ORDERS)
+                .allSatisfy(order -> assertThat(order.getItemCount()).isEqualTo(2));
+        assertThat(itemCounts()).containsOnlyNulls();
+    }
+
+    @Test
+    void backfillFillsThePendingRange() {
+        jdbcTemplate.update("update order_item_count_backfill set next_id = ?, last_id = ?", firstId - 1, lastId);
+
+        backfill.run();
+
+        assertThat(itemCounts()).hasSize(ORDERS).containsOnly(2);
+        assertThat(jdbcTemplate.queryForObject("select next_id from order_item_count_backfill", Long.class))
+                .isEqualTo(lastId);
+    }
+
+    private List<Integer> itemCounts() {
+        return jdbcTemplate.queryForList("select item_count from orders where customer_id = ?", Integer.class,
+                filter.getCustomerId());
+    }
+}
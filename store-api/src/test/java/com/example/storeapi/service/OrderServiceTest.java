@@ -0,0 +1,76 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.IntegrationTest;
+import com.example.storeapi.config.StatementCounter;
+import com.example.storeapi.dto.common.CursorPageDTO;
+import com.example.storeapi.dto.common.Fields;
+import com.example.storeapi.dto.order.OrderFilterDTO;
+import com.example.storeapi.dto.order.OrderItemResponseDTO;
+import com.example.storeapi.dto.order.OrderResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Statements das listagens de pedidos com itens: fixos, qualquer que seja o tamanho da página (sem N+1)
+class OrderServiceTest extends IntegrationTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    private OrderFilterDTO filter;
+
+    @BeforeEach
+    void orders() throws Exception {
+        long categoryId = createCategory();
+        long customerId = createCustomer();
+        long product1 = createProduct(categoryId, "10.50");
+        long product2 = createProduct(categoryId, "3.25");
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            createOrder(customerId, product1, product2);
+        }
+        filter = new OrderFilterDTO();
+        filter.setCustomerId(customerId);
+    }
+
+    // view=full: página (com o cliente no mesmo SELECT) + count + itens/produtos de todos os pedidos da página
+    @Test
+    void listWithItemsRunsPageCountAndItemsQueries() {
+        StatementCounter.reset();
+        Page<OrderResponseDTO> page = orderService.list(filter, PageRequest.of(0, PAGE_SIZE), Fields.ALL);
+
+        assertThat(StatementCounter.current()).isEqualTo(3);
+        assertThat(page.getContent()).hasSize(PAGE_SIZE).allSatisfy(order -> {
+            assertThat(order.getCustomerName()).isNotNull();
+            assertThat(order.getItems()).hasSize(2).extracting(OrderItemResponseDTO::getProductName).doesNotContainNull();
+        });
+    }
+
+    // view=summary: página + count, sem tocar em order_items (itemCount é coluna de orders)
+    @Test
+    void listSummaryRunsPageAndCountQueries() {
+        StatementCounter.reset();
+        Page<OrderResponseDTO> page = orderService.list(filter, PageRequest.of(0, PAGE_SIZE),
+                Fields.parse(null, OrderResponseDTO.FIELDS, OrderResponseDTO.SUMMARY_FIELDS));
+
+        assertThat(StatementCounter.current()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(PAGE_SIZE)
+                .allSatisfy(order -> assertThat(order.getItemCount()).isEqualTo(2));
+    }
+
+    // Cursor: sem count, então página + itens
+    @Test
+    void listAfterWithItemsRunsPageAndItemsQueries() {
+        StatementCounter.reset();
+        CursorPageDTO<OrderResponseDTO> page = orderService.listAfter(filter, null, PAGE_SIZE, Fields.ALL);
+
+        assertThat(StatementCounter.current()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(PAGE_SIZE)
+                .allSatisfy(order -> assertThat(order.getItems()).hasSize(2));
+    }
+}
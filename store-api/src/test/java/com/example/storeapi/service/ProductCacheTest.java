@@ -0,0 +1,140 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.IntegrationTest;
+import com.example.storeapi.domain.ProductStatus;
+import com.example.storeapi.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Invalidação entre instâncias: o ProductCache de "outra instância" (outro objeto, mesmo banco) descarta o produto
+// alterado por esta no primeiro check() depois da escrita, sem esperar o TTL e sem descartar os outros produtos
+class ProductCacheTest extends IntegrationTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private ProductCache otherInstance;
+    private long categoryId;
+    private long productId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        otherInstance = new ProductCache(productRepository, transactionManager, true, 1000, Duration.ofMinutes(10),
+                Duration.ofDays(1));
+        categoryId = createCategory();
+        productId = createProduct(categoryId, "10.00");
+        // o primeiro check só posiciona no log; o segundo reaplica o que confirmou logo antes dele
+        otherInstance.check();
+        otherInstance.check();
+        otherInstance.put(cached(productId, categoryId, "10.00"));
+    }
+
+    @Test
+    void keepsEntriesWhileNothingChanges() {
+        otherInstance.check();
+
+        assertThat(otherInstance.getIfPresent(productId)).isNotNull();
+    }
+
+    @Test
+    void productWriteOnAnotherInstanceInvalidates() throws Exception {
+        mockMvc.perform(patch("/api/v1/products/{id}", productId).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("price", "12.00"))))
+                .andExpect(status().isOk());
+        assertThat(otherInstance.getIfPresent(productId)).isNotNull();
+
+        otherInstance.check();
+
+        assertThat(otherInstance.getIfPresent(productId)).isNull();
+    }
+
+    @Test
+    void writeToAnotherProductKeepsThisOne() throws Exception {
+        long otherProductId = createProduct(categoryId, "5.00");
+        otherInstance.put(cached(otherProductId, categoryId, "5.00"));
+        mockMvc.perform(patch("/api/v1/products/{id}", otherProductId).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("price", "6.00"))))
+                .andExpect(status().isOk());
+
+        otherInstance.check();
+
+        assertThat(otherInstance.getIfPresent(otherProductId)).isNull();
+        assertThat(otherInstance.getIfPresent(productId)).isNotNull();
+    }
+
+    @Test
+    void categoryRenameOnAnotherInstanceInvalidates() throws Exception {
+        mockMvc.perform(patch("/api/v1/categories/{id}", categoryId).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("name", unique("cat")))))
+                .andExpect(status().isOk());
+
+        otherInstance.check();
+
+        assertThat(otherInstance.getIfPresent(productId)).isNull();
+    }
+
+    // Uma leitura que começou antes da escrita e gravou depois da remoção sai no check seguinte
+    @Test
+    void staleEntryWrittenAfterTheInvalidationIsDroppedByTheNextCheck() throws Exception {
+        mockMvc.perform(patch("/api/v1/products/{id}", productId).contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(Map.of("price", "12.00"))))
+                .andExpect(status().isOk());
+        otherInstance.check();
+        otherInstance.put(cached(productId, categoryId, "10.00"));
+
+        otherInstance.check();
+
+        assertThat(otherInstance.getIfPresent(productId)).isNull();
+    }
+
+    // Uma transação de escrita longa que confirma depois de escritas mais novas já vistas não é pulada
+    @Test
+    void changeCommittedLateByALongTransactionInvalidates() throws Exception {
+        long otherProductId = createProduct(categoryId, "5.00");
+        try (Connection longWriter = dataSource.getConnection()) {
+            longWriter.setAutoCommit(false);
+            try (PreparedStatement insert = longWriter.prepareStatement("insert into product_changes (product_id) values (?)")) {
+                insert.setLong(1, productId);
+                insert.executeUpdate();
+            }
+            mockMvc.perform(patch("/api/v1/products/{id}", otherProductId).contentType(MediaType.APPLICATION_JSON)
+                            .content(toJson(Map.of("price", "6.00"))))
+                    .andExpect(status().isOk());
+            otherInstance.check();
+            otherInstance.check();
+            otherInstance.check();
+            assertThat(otherInstance.getIfPresent(productId)).isNotNull();
+
+            longWriter.commit();
+        }
+
+        otherInstance.check();
+
+        assertThat(otherInstance.getIfPresent(productId)).isNull();
+    }
+
+    private static CachedProduct cached(long id, long categoryId, String price) {
+        return new CachedProduct(id, "product", null, new BigDecimal(price), ProductStatus.ACTIVE,
+                categoryId, "cat", null, 0L, 0L);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.storeapi.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.storeapi.IntegrationTest;
+import com.example.storeapi.dto.common.Fields;
+import com.example.storeapi.dto.product.ProductFilterDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Planos do SQL que a listagem de produtos gera para os filtros (V13): o mesmo SELECT que o Hibernate executa,
+// reexecutado com EXPLAIN (FORMAT JSON) e os mesmos valores. Com enable_seqscan = off o resultado não depende de
+// quantos produtos o banco de teste tem: se o índice serve ao WHERE, o planner o escolhe.
+class ProductServiceTest extends IntegrationTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long categoryId;
+
+    @BeforeEach
+    void catalog() throws Exception {
+        categoryId = createCategory();
+        for (int i = 1; i <= 10; i++) {
+            createProduct(categoryId, i + "0.00");
+        }
+        jdbcTemplate.execute("analyze products");
+    }
+
+    @Test
+    void categoryStatusAndPriceUseTheCompositeIndex() {
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setCategoryId(categoryId);
+        filter.setStatus("INACTIVE");
+        filter.setMinPrice(new BigDecimal("20.00"));
+        filter.setMaxPrice(new BigDecimal("80.00"));
+
+        String sql = listSql(filter);
+
+        assertThat(indexesOf(explain(sql, categoryId, "'INACTIVE'", "20.00", "80.00", 0, PAGE_SIZE)))
+                .contains("idx_products_category_status_price");
+    }
+
+    // Só ACTIVE, sem categoria: o índice parcial de preço, que nem contém os produtos inativos
+    @Test
+    void activeOnlyUsesThePartialIndex() {
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setStatus("ACTIVE");
+        filter.setMinPrice(new BigDecimal("20.00"));
+        filter.setMaxPrice(new BigDecimal("80.00"));
+
+        String sql = listSql(filter);
+
+        assertThat(indexesOf(explain(sql, "'ACTIVE'", "20.00", "80.00", 0, PAGE_SIZE)))
+                .contains("idx_products_active_price");
+    }
+
+    // O SELECT da página (o count(*) vem em outro statement), capturado do logger org.hibernate.SQL
+    private String listSql(ProductFilterDTO filter) {
+        Logger logger = (Logger) LoggerFactory.getLogger("org.hibernate.SQL");
+        Level level = logger.getLevel();
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.DEBUG);
+        try {
+            productService.list(filter, PageRequest.of(0, PAGE_SIZE), Fields.ALL);
+        } finally {
+            logger.setLevel(level);
+            logger.detachAppender(appender);
+        }
+        return appender.list.stream()
+                .map(event -> event.getFormattedMessage().replaceAll("\\s+", " ").strip())
+                .filter(sql -> sql.contains("from products") && !sql.contains("count("))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Product page query not logged: " + appender.list));
+    }
+
+    // PREPARE com os "?" do Hibernate como $1..$n (os filtros, depois offset e limite da página) e EXPLAIN EXECUTE
+    // com os valores (literais SQL), na mesma conexão do SET enable_seqscan
+    private JsonNode explain(String sql, Object... values) {
+        StringBuilder prepared = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++parameter);
+            } else {
+                prepared.append(c);
+            }
+        }
+        assertThat(parameter).as("parameters of %s", sql).isEqualTo(values.length);
+        List<String> literals = new ArrayList<>();
+        for (Object value : values) {
+            literals.add(String.valueOf(value));
+        }
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set enable_seqscan = off");
+                statement.execute("prepare product_page as " + prepared);
+                try (ResultSet rs = statement.executeQuery(
+                        "explain (format json) execute product_page(" + String.join(", ", literals) + ")")) {
+                    rs.next();
+                    return rs.getString(1);
+                } finally {
+                    statement.execute("deallocate product_page");
+                    statement.execute("reset enable_seqscan");
+                }
+            }
+        });
+        try {
+            return objectMapper.readTree(plan);
+        } catch (Exception ex) {
+            throw new AssertionError("Invalid plan: " + plan, ex);
+        }
+    }
+
+    private static List<String> indexesOf(JsonNode plan) {
+        List<String> indexes = new ArrayList<>();
+        plan.findValues("Index Name").forEach(name -> indexes.add(name.asText()));
+        return indexes;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.storeapi.service;
+
+import com.example.storeapi.IntegrationTest;
+import com.example.storeapi.domain.OrderStatus;
+import com.example.storeapi.repository.SalesRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Recálculo dos rollups com pedidos sendo gravados: a escrita não espera o rebuild e, depois do fold, os rollups
+// batem com um recálculo feito do zero
+class SalesRollupServiceTest extends IntegrationTest {
+
+    @Autowired
+    private SalesRollupService rollupService;
+
+    @Autowired
+    private SalesRollupRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void orderWritesDuringARebuildAreNotBlockedNorLost() throws Exception {
+        long customerId = createCustomer();
+        long productId = createProduct(createCategory(), "10.00");
+        createOrder(customerId, productId);
+
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    rollupService.rebuild();
+                    rebuilt.countDown();
+                    try {
+                        commit.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        try {
+            assertThat(rebuilt.await(30, TimeUnit.SECONDS)).isTrue();
+
+            CompletableFuture<Long> order = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return createOrder(customerId, productId);
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+            assertThat(order.get(10, TimeUnit.SECONDS)).isPositive();
+            Boolean foldLocked = transactionTemplate.execute(status -> repository.tryLockFold());
+            assertThat(foldLocked).isFalse();
+        } finally {
+            commit.countDown();
+        }
+        rebuild.get(30, TimeUnit.SECONDS);
+
+        rollupService.fold();
+        List<String> folded = daily();
+        transactionTemplate.executeWithoutResult(status -> rollupService.rebuild());
+
+        assertThat(folded).isEqualTo(daily());
+    }
+
+    private List<String> daily() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return transactionTemplate.execute(status -> repository.report(SalesRollupRepository.Level.DAY,
+                        today.minusDays(1), today.plusDays(2), EnumSet.allOf(OrderStatus.class), 1000)).stream()
+                .map(row -> row.getDay() + " " + row.getRevenue().stripTrailingZeros().toPlainString() + " "
+                        + row.getUnits() + " " + row.getOrders())
+                .toList();
+    }
+}
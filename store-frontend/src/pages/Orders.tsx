@@ -66,7 +66,15 @@ export function OrdersPage() {
     loadAuxData()
   }
 
-  async function openEdit(order: Order) {
+  // A listagem vem resumida (sem itens): o pedido completo é carregado ao abrir a edição
+  async function openEdit(summary: Order) {
+    let order: Order
+    try {
+      order = (await api.get<Order>(`/orders/${summary.id}`)).data
+    } catch (e: any) {
+      toast.error('Falha ao carregar pedido', { description: getApiErrorMessage(e) })
+      return
+    }
     setEditing(order)
     setFormCustomerId(order.customerId)
     const mapped: NewOrderItem[] = (order.items || []).map(it => ({ productId: it.productId, quantity: it.quantity }))
@@ -79,9 +87,10 @@ export function OrdersPage() {
 
   async function loadAuxData() {
     try {
+      // Os selects só usam estes campos; sem categoryName a API nem lê as categorias
       const [cRes, pRes] = await Promise.all([
-        api.get<Page<Customer>>('/customers', { params: { page: 0, size: 100, sort: 'name,asc' } }),
-        api.get<Page<Product>>('/products', { params: { page: 0, size: 200, sort: 'name,asc' } }),
+        api.get<Page<Customer>>('/customers', { params: { page: 0, size: 100, sort: 'name,asc', fields: 'id,name' } }),
+        api.get<Page<Product>>('/products', { params: { page: 0, size: 200, sort: 'name,asc', fields: 'id,name,price' } }),
       ])
       setCustomers(cRes.data.content)
       setProducts(pRes.data.content)
@@ -212,6 +221,7 @@ export function OrdersPage() {
               <tr>
                 <th>ID</th>
                 <th>Cliente</th>
+                <th>Itens</th>
                 <th>Total</th>
                 <th>Status</th>
                 <th>Data</th>
@@ -223,6 +233,7 @@ export function OrdersPage() {
                 <tr key={i.id} className="hover:bg-white/5">
                   <td>#{i.id}</td>
                   <td>{i.customerName}</td>
+                  <td>{i.itemCount}</td>
                   <td>R$ {Number(i.total).toFixed(2)}</td>
                   <td><span className="badge">{i.status}</span></td>
                   <td className="text-foreground/80">{new Date(i.createdAt).toLocaleString()}</td>
@@ -236,12 +247,12 @@ export function OrdersPage() {
               ))}
               {!loading && items.length === 0 && (
                 <tr>
-                  <td colSpan={6} className="py-8 text-center text-foreground/60">Nenhum registro.</td>
+                  <td colSpan={7} className="py-8 text-center text-foreground/60">Nenhum registro.</td>
                 </tr>
               )}
               {loading && (
                 <tr>
-                  <td colSpan={6} className="py-8 text-center text-foreground/60">Carregando...</td>
+                  <td colSpan={7} className="py-8 text-center text-foreground/60">Carregando...</td>
                 </tr>
               )}
               </tbody>
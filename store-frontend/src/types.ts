@@ -35,7 +35,9 @@ export type Order = {
   id: number
   customerId: number
   customerName: string
-  items: OrderItem[]
+  // Só em GET /orders/{id} (ou view=full/expand=items); a listagem traz apenas itemCount
+  items?: OrderItem[]
+  itemCount: number
   total: number
   status: 'CREATED' | 'PENDING' | 'PAID' | 'DELIVERED' | 'CANCELED'
   createdAt: string